@@ -0,0 +1,94 @@
+package com.desafio.literalura.client;
+
+import java.time.Duration;
+
+// Corta las peticiones a Gutendex cuando falla varias veces seguidas, para no hacer esperar a cada usuario hasta el timeout
+// ni cargar más a una API que ya no responde. Pasado open-duration deja pasar una sola petición de prueba (medio abierto):
+// si responde bien vuelve a cerrarse y, si falla, sigue abierto otro periodo.
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, // Las peticiones pasan
+        OPEN, // Las peticiones fallan sin salir
+        HALF_OPEN // Una petición de prueba en curso; las demás fallan sin salir
+    }
+
+    private final int failureThreshold; // Fallos seguidos que abren el circuito
+    private final long openMillis; // Tiempo abierto antes de probar de nuevo
+
+    private State state = State.CLOSED;
+    private int failures; // Fallos seguidos mientras está cerrado
+    private long openedAt;
+    private boolean probing; // Hay una petición de prueba en curso
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openDuration.toMillis();
+    }
+
+    // Método para pedir permiso antes de una petición; false si el circuito está abierto
+    public synchronized boolean tryAcquire() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> {
+                if (System.currentTimeMillis() - openedAt < openMillis) {
+                    yield false;
+                }
+                state = State.HALF_OPEN; // Pasó el tiempo de espera: esta petición es la de prueba
+                probing = true;
+                yield true;
+            }
+            case HALF_OPEN -> {
+                if (probing) {
+                    yield false;
+                }
+                probing = true;
+                yield true;
+            }
+        };
+    }
+
+    // Método para registrar una respuesta correcta (o un error que no es culpa de la API, como un 404)
+    public synchronized void onSuccess() {
+        if (state == State.OPEN) {
+            return; // Respuesta tardía de una petición anterior a la apertura
+        }
+        if (state == State.HALF_OPEN) {
+            System.out.println("Gutendex responde de nuevo; circuito cerrado.");
+        }
+        state = State.CLOSED;
+        failures = 0;
+        probing = false;
+    }
+
+    // Método para registrar un fallo de la API (error de red, timeout, 5xx o 429)
+    public synchronized void onFailure() {
+        if (state == State.OPEN) {
+            return;
+        }
+        if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+            System.err.println("Gutendex no responde; circuito abierto durante " + openMillis / 1000 + " s.");
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            failures = 0;
+            probing = false;
+        }
+    }
+
+    // Método para registrar una petición que pidió permiso pero no llegó a salir (por ejemplo, sin turno en la cola
+    // propia): no cuenta a favor ni en contra, pero si era la de prueba deja lugar a otra
+    public synchronized void onAbandoned() {
+        probing = false;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    // Método para saber cuánto falta para la próxima petición de prueba
+    public synchronized Duration retryAfter() {
+        return state == State.OPEN
+                ? Duration.ofMillis(Math.max(0, openMillis - (System.currentTimeMillis() - openedAt)))
+                : Duration.ZERO;
+    }
+}
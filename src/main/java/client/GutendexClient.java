@@ -0,0 +1,703 @@
+package com.desafio.literalura.client;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.Header;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component // Cliente para las peticiones HTTP a la API de Gutendex
+public class GutendexClient {
+
+    @Autowired
+    private RestTemplate restTemplate; // Cliente síncrono con pool de conexiones
+
+    @Autowired
+    private CloseableHttpAsyncClient httpAsyncClient; // Cliente asíncrono con pool de conexiones
+
+    @Autowired
+    private GutendexResponseCache responseCache; // Caché de respuestas para evitar peticiones repetidas
+
+    @Autowired
+    private GutendexPageDecoder pageDecoder; // Para leer las páginas de resultados sin construir el árbol JSON
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gutendex.http.max-concurrent-requests:20}")
+    private int maxConcurrentRequests; // Peticiones simultáneas máximas hacia Gutendex
+
+    @Value("${gutendex.http.interactive-reserve:4}")
+    private int interactiveReserve; // Peticiones simultáneas que quedan libres para las interactivas
+
+    @Value("${gutendex.http.rate:10}")
+    private double requestsPerSecond; // Ritmo medio máximo hacia Gutendex (0 = sin límite)
+
+    @Value("${gutendex.http.burst:20}")
+    private int burst; // Peticiones que pueden salir seguidas por encima del ritmo medio
+
+    @Value("${gutendex.http.acquire-timeout:10s}")
+    private Duration acquireTimeout; // Espera máxima por un turno antes de fallar la petición
+
+    @Value("${gutendex.http.max-retries:3}")
+    private int maxRetries; // Reintentos de las peticiones en segundo plano (actualización e importación)
+
+    @Value("${gutendex.http.interactive-retries:1}")
+    private int interactiveRetries; // Reintentos de las peticiones interactivas (un usuario espera)
+
+    @Value("${gutendex.http.backoff-base:500ms}")
+    private Duration backoffBase; // Espera máxima antes del primer reintento; se duplica en cada uno
+
+    @Value("${gutendex.http.backoff-max:30s}")
+    private Duration backoffMax; // Tope de la espera entre reintentos; un Retry-After mayor no se reintenta
+
+    @Value("${gutendex.circuit.failure-threshold:5}")
+    private int failureThreshold; // Fallos seguidos que abren el circuito
+
+    @Value("${gutendex.circuit.open-duration:30s}")
+    private Duration openDuration; // Tiempo sin peticiones a Gutendex antes de probar de nuevo
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads; // Con hilos virtuales las llamadas asíncronas usan el cliente bloqueante
+
+    private UpstreamLimiter limiter;
+    private CircuitBreaker circuitBreaker;
+    // Peticiones en curso por URL normalizado: quien pide lo mismo mientras tanto recibe el mismo futuro
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private Counter coalescedCounter; // Peticiones que se unieron a otra igual en curso
+    private Counter staleCounter; // Respuestas caducadas servidas porque Gutendex no respondía
+    private final Map<RequestPriority, Timer> waitTimers = new EnumMap<>(RequestPriority.class); // Espera en cola por prioridad
+    private final Map<RequestPriority, Counter> retryCounters = new EnumMap<>(RequestPriority.class);
+    private ExecutorService virtualExecutor; // Un hilo virtual por petición (solo en modo de hilos virtuales)
+    private ExecutorService streamExecutor; // Páginas de fondo decodificadas mientras llegan (solo sin hilos virtuales)
+    private Timer fetchTimer; // Primera fase: descarga y decodificación de una página, fuera de cualquier transacción
+
+    @PostConstruct
+    void init() {
+        limiter = new UpstreamLimiter(maxConcurrentRequests, interactiveReserve, requestsPerSecond, burst);
+        circuitBreaker = new CircuitBreaker(failureThreshold, openDuration);
+        fetchTimer = Timer.builder("literalura.pipeline.fetch")
+                .description("Descarga y decodificación de una página de Gutendex")
+                .register(meterRegistry);
+        Gauge.builder("literalura.pipeline.fetch.queue", limiter, UpstreamLimiter::queued)
+                .description("Peticiones a Gutendex esperando turno")
+                .register(meterRegistry);
+        for (RequestPriority priority : RequestPriority.values()) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("literalura.gutendex.queue", limiter, queue -> queue.queued(priority))
+                    .description("Peticiones a Gutendex esperando turno, por prioridad")
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+            waitTimers.put(priority, Timer.builder("literalura.gutendex.queue.wait")
+                    .description("Tiempo esperando turno para salir hacia Gutendex, por prioridad")
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+            retryCounters.put(priority, Counter.builder("literalura.gutendex.retries")
+                    .description("Peticiones a Gutendex repetidas tras un error o un Retry-After")
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+        }
+        Gauge.builder("literalura.gutendex.circuit.open", circuitBreaker, breaker -> breaker.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 si las peticiones a Gutendex están cortadas (circuito abierto o medio abierto)")
+                .register(meterRegistry);
+        coalescedCounter = Counter.builder("literalura.gutendex.coalesced")
+                .description("Peticiones a Gutendex que esperaron la respuesta de otra igual en curso")
+                .register(meterRegistry);
+        staleCounter = Counter.builder("literalura.gutendex.stale")
+                .description("Respuestas caducadas de la caché servidas porque Gutendex no respondía")
+                .register(meterRegistry);
+        if (virtualThreads) {
+            virtualExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        } else {
+            streamExecutor = Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "gutendex-stream");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (virtualExecutor != null) {
+            virtualExecutor.close();
+        }
+        if (streamExecutor != null) {
+            streamExecutor.shutdownNow();
+        }
+        limiter.close();
+    }
+
+    // Método para pedir una página y decodificarla (primero se consulta la caché). La respuesta se decodifica
+    // mientras llega; solo las interactivas se copian además para la caché. Sin caché, o en los recorridos de fondo
+    // (importación, actualización), cuyas páginas no se vuelven a pedir, no se guarda ninguna copia en memoria.
+    public GutendexPage getPage(String url, boolean withBooks) {
+        return getPage(url, withBooks, RequestPriority.INTERACTIVE);
+    }
+
+    public GutendexPage getPage(String url, boolean withBooks, RequestPriority priority) {
+        return fetchTimer.record(() -> readPage(url, withBooks, priority));
+    }
+
+    private GutendexPage readPage(String url, boolean withBooks, RequestPriority priority) {
+        byte[] cached = responseCache.get(url);
+        if (cached != null) {
+            return pageDecoder.decode(cached, withBooks);
+        }
+        if (!responseCache.isEnabled() || priority != RequestPriority.INTERACTIVE) {
+            return readUncached(url, withBooks, priority);
+        }
+        return fetchPage(url, withBooks, priority);
+    }
+
+    // Petición bloqueante de una página que se guarda en la caché. La hace el primero que la pide: la decodifica
+    // mientras llega y a la vez copia los bytes para la caché; el resto espera esa copia y la decodifica
+    private GutendexPage fetchPage(String url, boolean withBooks, RequestPriority priority) {
+        AtomicReference<GutendexPage> decoded = new AtomicReference<>();
+        CompletableFuture<byte[]> body = shared(url, priority, onTurn -> {
+            byte[] response = limited(priority, onTurn, () -> stream(url, withBooks, decoded::set));
+            responseCache.put(url, response);
+            return CompletableFuture.completedFuture(response);
+        });
+        byte[] bytes = join(body);
+        GutendexPage page = decoded.get();
+        return page != null ? page : pageDecoder.decode(bytes, withBooks); // Respuesta de otra petición o caducada
+    }
+
+    // Petición bloqueante que decodifica la página mientras llega y devuelve una copia de los bytes leídos
+    private byte[] stream(String url, boolean withBooks, Consumer<GutendexPage> onPage) {
+        long start = System.nanoTime();
+        try {
+            return restTemplate.execute(url, HttpMethod.GET, null, response -> {
+                TeeInputStream body = new TeeInputStream(response.getBody());
+                GutendexPage page = pageDecoder.decode(body, withBooks); // Al cerrar, el resto también se copia
+                recordExchange(url, start, String.valueOf(response.getStatusCode().value()), body.copy.size());
+                onPage.accept(page);
+                return body.copy.toByteArray();
+            });
+        } catch (RuntimeException e) {
+            recordExchange(url, start, statusOf(e), -1);
+            throw e;
+        }
+    }
+
+    // Método para pedir una página sin pasar por la caché (ni leerla ni guardarla), para datos que deben estar al día
+    public GutendexPage getFreshPage(String url, RequestPriority priority) {
+        return fetchTimer.record(() -> readUncached(url, true, priority));
+    }
+
+    // Sin respuesta en memoria no hay nada que compartir con otras peticiones iguales ni que servir caducado:
+    // solo se respeta el circuito
+    private GutendexPage readUncached(String url, boolean withBooks, RequestPriority priority) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new GutendexUnavailableException(circuitBreaker.retryAfter());
+        }
+        try {
+            GutendexPage page = limited(priority, () -> {
+                long start = System.nanoTime();
+                try {
+                    return restTemplate.execute(url, HttpMethod.GET, null, response -> {
+                        CountingInputStream body = new CountingInputStream(response.getBody());
+                        GutendexPage decoded = pageDecoder.decode(body, withBooks);
+                        recordExchange(url, start, String.valueOf(response.getStatusCode().value()), body.count);
+                        return decoded;
+                    });
+                } catch (RuntimeException e) {
+                    recordExchange(url, start, statusOf(e), -1);
+                    throw e;
+                }
+            });
+            circuitBreaker.onSuccess();
+            return page;
+        } catch (RuntimeException e) {
+            recordFailure(e);
+            throw e;
+        }
+    }
+
+    // Método para saber si hay peticiones interactivas a Gutendex en curso o esperando turno. Las de menor prioridad
+    // no cuentan: entre ellas ya ordena el planificador
+    public boolean hasInteractiveTraffic() {
+        return limiter.inUse(RequestPriority.INTERACTIVE) > 0 || limiter.queued(RequestPriority.INTERACTIVE) > 0;
+    }
+
+    // Petición bloqueante que guarda la respuesta en la caché; la hace el primero que la pide y el resto espera su resultado
+    private byte[] fetch(String url, RequestPriority priority) {
+        CompletableFuture<byte[]> body = shared(url, priority, onTurn -> {
+            byte[] response = limited(priority, onTurn, () -> get(url));
+            responseCache.put(url, response);
+            return CompletableFuture.completedFuture(response);
+        });
+        return join(body);
+    }
+
+    private static byte[] join(CompletableFuture<byte[]> body) {
+        try {
+            return body.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ResourceAccessException("Error al consultar Gutendex", new IOException(e.getCause()));
+        }
+    }
+
+    // Petición bloqueante que devuelve la respuesta entera en memoria
+    private byte[] get(String url) {
+        long start = System.nanoTime();
+        try {
+            ResponseEntity<byte[]> response = restTemplate.getForEntity(url, byte[].class);
+            byte[] body = response.getBody() != null ? response.getBody() : new byte[0];
+            recordExchange(url, start, String.valueOf(response.getStatusCode().value()), body.length);
+            return body;
+        } catch (RuntimeException e) {
+            recordExchange(url, start, statusOf(e), -1);
+            throw e;
+        }
+    }
+
+    // Método para ejecutar una petición bloqueante cuando el planificador le da turno, reintentando los errores pasajeros.
+    // El permiso se devuelve antes de esperar el reintento para no ocuparlo sin hacer nada
+    private <T> T limited(RequestPriority priority, Supplier<T> request) {
+        return limited(priority, () -> {
+        }, request);
+    }
+
+    // onTurn avisa cada vez que la petición consigue turno (ver shared)
+    private <T> T limited(RequestPriority priority, Runnable onTurn, Supplier<T> request) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                acquire(priority).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new ResourceAccessException("Error al esperar turno para Gutendex", new IOException(e.getCause()));
+            }
+            onTurn.run();
+            Duration delay;
+            try {
+                return request.get();
+            } catch (RuntimeException e) {
+                delay = retryDelay(e, priority, attempt);
+                if (delay == null) {
+                    throw e;
+                }
+            } finally {
+                limiter.release(priority);
+            }
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResourceAccessException("Reintento a Gutendex interrumpido", new IOException(e));
+            }
+        }
+    }
+
+    // Método para pedir turno al planificador midiendo cuánto se espera en cola. Si no hay turno a tiempo, el futuro
+    // falla con GutendexQueueFullException para distinguirlo de un timeout de la API
+    private CompletableFuture<Void> acquire(RequestPriority priority) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return limiter.acquire(priority, acquireTimeout)
+                .whenComplete((permit, e) -> sample.stop(waitTimers.get(priority)))
+                .exceptionallyCompose(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    return CompletableFuture.failedFuture(cause instanceof TimeoutException
+                            ? new GutendexQueueFullException(acquireTimeout) : cause);
+                });
+    }
+
+    // Método para decidir si un error se reintenta y cuánto esperar antes; null si no se reintenta.
+    // Se reintentan los errores de red y las respuestas 429, 502, 503 y 504. Con Retry-After se pausa toda la salida
+    // hacia Gutendex ese tiempo y el reintento espera la pausa fuera de la cola, para que no cuente en su acquire-timeout
+    // (una pausa más larga que este haría fallar el turno como cola llena); sin él, la espera es aleatoria entre 0 y
+    // backoff-base * 2^intento (backoff exponencial con jitter completo), para que los reintentos no salgan todos a la vez
+    private Duration retryDelay(Throwable e, RequestPriority priority, int attempt) {
+        if (attempt >= (priority == RequestPriority.INTERACTIVE ? interactiveRetries : maxRetries)) {
+            return null;
+        }
+        if (e instanceof RestClientResponseException response) {
+            int status = response.getStatusCode().value();
+            if (status != 429 && status != 502 && status != 503 && status != 504) {
+                return null;
+            }
+            Duration retryAfter = retryAfter(response.getResponseHeaders());
+            if (retryAfter != null) {
+                limiter.pause(retryAfter);
+                if (retryAfter.compareTo(backoffMax) > 0) {
+                    return null;
+                }
+                retryCounters.get(priority).increment();
+                return retryAfter;
+            }
+        } else if (!(e instanceof ResourceAccessException || e instanceof IOException)
+                || e instanceof GutendexUnavailableException || e instanceof GutendexQueueFullException) {
+            return null;
+        }
+        retryCounters.get(priority).increment();
+        long ceiling = Math.min(backoffMax.toMillis(), backoffBase.toMillis() << Math.min(attempt, 20));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    // Método para leer Retry-After en segundos o como fecha HTTP; null si no viene o no se entiende
+    private Duration retryAfter(HttpHeaders headers) {
+        String value = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                Duration until = Duration.between(ZonedDateTime.now(),
+                        ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                return until.isNegative() ? Duration.ZERO : until;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    // Versión asíncrona de getPage: la petición HTTP no ocupa ningún hilo mientras espera
+    public CompletableFuture<GutendexPage> getPageAsync(String url, boolean withBooks) {
+        return getPageAsync(url, withBooks, RequestPriority.INTERACTIVE);
+    }
+
+    public CompletableFuture<GutendexPage> getPageAsync(String url, boolean withBooks, RequestPriority priority) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<GutendexPage> page;
+        if (virtualExecutor != null || priority != RequestPriority.INTERACTIVE) {
+            // Con hilos virtuales bloquear no ocupa un hilo del sistema; los recorridos de fondo, sin hilos virtuales,
+            // usan un hilo propio por página para decodificarla mientras llega en lugar de recibirla entera
+            page = CompletableFuture.supplyAsync(() -> readPage(url, withBooks, priority),
+                    virtualExecutor != null ? virtualExecutor : streamExecutor);
+        } else {
+            page = getAsync(url, priority).thenApply(body -> pageDecoder.decode(body, withBooks));
+        }
+        return page.whenComplete((result, e) -> sample.stop(fetchTimer));
+    }
+
+    // Método para hacer una petición GET sin bloquear el hilo que la lanza; devuelve los bytes de la respuesta
+    public CompletableFuture<byte[]> getAsync(String url, RequestPriority priority) {
+        byte[] cached = responseCache.get(url);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        if (virtualExecutor != null) {
+            // Con hilos virtuales, bloquear mientras se espera la respuesta no ocupa un hilo del sistema
+            return CompletableFuture.supplyAsync(() -> fetch(url, priority), virtualExecutor);
+        }
+        // Sin hilos virtuales, la espera por un turno tampoco bloquea: la petición sale cuando se libera un permiso
+        return shared(url, priority, onTurn -> executeLimited(url, priority, 0, onTurn));
+    }
+
+    // Versión asíncrona de limited: cada intento espera turno y los reintentos se programan sin bloquear ningún hilo
+    private CompletableFuture<byte[]> executeLimited(String url, RequestPriority priority, int attempt, Runnable onTurn) {
+        return acquire(priority)
+                .thenCompose(permit -> {
+                    onTurn.run();
+                    return execute(url).whenComplete((body, e) -> limiter.release(priority));
+                })
+                .handle((body, e) -> {
+                    if (e == null) {
+                        return CompletableFuture.completedFuture(body);
+                    }
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    Duration delay = retryDelay(cause, priority, attempt);
+                    if (delay == null) {
+                        return CompletableFuture.<byte[]>failedFuture(cause);
+                    }
+                    return CompletableFuture.runAsync(() -> {
+                    }, CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS))
+                            .thenCompose(ignored -> executeLimited(url, priority, attempt + 1, onTurn));
+                })
+                .thenCompose(body -> body);
+    }
+
+    // Método para compartir una petición entre todos los que piden el mismo URL mientras está en curso (single flight).
+    // Solo el primero pasa por el circuito; si Gutendex no responde, todos reciben la última respuesta caducada de la caché.
+    // Una petición no se une a otra de menor prioridad que sigue esperando turno (quedaría en su cola): sale por su cuenta
+    // y las siguientes iguales se unen a ella. request recibe el aviso que hay que dar al conseguir el turno
+    private CompletableFuture<byte[]> shared(String url, RequestPriority priority,
+                                             Function<Runnable, CompletableFuture<byte[]>> request) {
+        String key = responseCache.normalize(url);
+        InFlight mine = new InFlight(new CompletableFuture<>(), priority, new AtomicBoolean());
+        InFlight current;
+        while ((current = inFlight.putIfAbsent(key, mine)) != null) {
+            if (current.priority().compareTo(priority) <= 0 || current.started().get()) {
+                coalescedCounter.increment();
+                return current.body();
+            }
+            if (inFlight.replace(key, current, mine)) {
+                break;
+            }
+        }
+        CompletableFuture<byte[]> result = mine.body();
+        guarded(url, () -> request.apply(() -> mine.started().set(true))).whenComplete((body, e) -> {
+            inFlight.remove(key, mine); // Antes de completar: quien llegue después ya encuentra la respuesta en la caché
+            if (e != null) {
+                result.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            } else {
+                result.complete(body);
+            }
+        });
+        return result;
+    }
+
+    // Método para hacer una petición a través del circuito, con la respuesta caducada como alternativa
+    private CompletableFuture<byte[]> guarded(String url, Supplier<CompletableFuture<byte[]>> request) {
+        if (!circuitBreaker.tryAcquire()) {
+            return staleOr(url, new GutendexUnavailableException(circuitBreaker.retryAfter())); // Sin esperar al timeout
+        }
+        CompletableFuture<byte[]> response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response.handle((body, e) -> {
+            if (e == null) {
+                circuitBreaker.onSuccess();
+                return CompletableFuture.completedFuture(body);
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            return recordFailure(cause) ? staleOr(url, cause) : CompletableFuture.<byte[]>failedFuture(cause);
+        }).thenCompose(body -> body);
+    }
+
+    // Método para anotar en el circuito el resultado de una petición fallida; devuelve si fue un fallo de Gutendex.
+    // Los 4xx (salvo 429) son respuestas válidas de una API sana y no cuentan. Si la petición ni siquiera salió porque
+    // la cola propia estaba llena, no dice nada de Gutendex: no cuenta como fallo ni como éxito
+    private boolean recordFailure(Throwable e) {
+        if (e instanceof GutendexQueueFullException) {
+            circuitBreaker.onAbandoned();
+            return false;
+        }
+        if (e instanceof RestClientResponseException response && response.getStatusCode().is4xxClientError()
+                && response.getStatusCode().value() != 429) {
+            circuitBreaker.onSuccess();
+            return false;
+        }
+        circuitBreaker.onFailure(); // Error de red, timeout, 5xx o 429
+        return true;
+    }
+
+    private CompletableFuture<byte[]> staleOr(String url, Throwable error) {
+        byte[] stale = responseCache.getStale(url);
+        if (stale == null) {
+            return CompletableFuture.failedFuture(error);
+        }
+        staleCounter.increment();
+        return CompletableFuture.completedFuture(stale);
+    }
+
+    // Petición con el cliente asíncrono; la respuesta se atiende desde el reactor de E/S
+    private CompletableFuture<byte[]> execute(String url) {
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        long start = System.nanoTime();
+        httpAsyncClient.execute(SimpleRequestBuilder.get(url).build(), new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                byte[] body = response.getBodyBytes();
+                recordExchange(url, start, String.valueOf(response.getCode()),
+                        response.getCode() < 400 && body != null ? body.length : -1);
+                if (response.getCode() >= 400) {
+                    HttpHeaders headers = new HttpHeaders(); // Para leer Retry-After
+                    for (Header header : response.getHeaders()) {
+                        headers.add(header.getName(), header.getValue());
+                    }
+                    future.completeExceptionally(new RestClientResponseException(
+                            "Error HTTP " + response.getCode() + " en " + url,
+                            HttpStatusCode.valueOf(response.getCode()), response.getReasonPhrase(),
+                            headers, body,
+                            StandardCharsets.UTF_8));
+                } else {
+                    responseCache.put(url, body);
+                    future.complete(body);
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                recordExchange(url, start, statusOf(e), -1);
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        });
+        return future;
+    }
+
+    // Método para anotar una petición HTTP a Gutendex: duración por endpoint y estado (sin contar la espera de turno)
+    // y, si tuvo éxito, bytes recibidos por endpoint (bytes < 0 si no hay respuesta que medir)
+    private void recordExchange(String url, long start, String status, long bytes) {
+        String endpoint = endpointOf(url);
+        Timer.builder("literalura.gutendex.requests")
+                .description("Peticiones HTTP a Gutendex, por endpoint y estado")
+                .tags("endpoint", endpoint, "status", status)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (bytes >= 0) {
+            DistributionSummary.builder("literalura.gutendex.response.size")
+                    .description("Tamaño de las respuestas de Gutendex")
+                    .baseUnit("bytes")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry)
+                    .record(bytes);
+        }
+    }
+
+    // Estado HTTP de una petición fallida, o IO_ERROR si no hubo respuesta (red, timeout)
+    private static String statusOf(Throwable e) {
+        return e instanceof RestClientResponseException response ? String.valueOf(response.getStatusCode().value()) : "IO_ERROR";
+    }
+
+    // Tipo de consulta según sus parámetros (el mismo criterio que el TTL de la caché); catalog si no filtra nada
+    private static String endpointOf(String url) {
+        Map<String, List<String>> params = UriComponentsBuilder.fromUriString(url).build().getQueryParams();
+        for (String endpoint : List.of("search", "topic", "languages", "ids")) {
+            if (params.containsKey(endpoint)) {
+                return endpoint;
+            }
+        }
+        return "catalog";
+    }
+
+    // Método para recorrer todas las páginas de un resultado a partir del primer URL
+    public GutendexPageIterator pages(String firstUrl) {
+        return pages(firstUrl, RequestPriority.INTERACTIVE);
+    }
+
+    public GutendexPageIterator pages(String firstUrl, RequestPriority priority) {
+        return new GutendexPageIterator(this, firstUrl, priority);
+    }
+
+    // Petición en curso: su respuesta, con qué prioridad espera turno y si ya lo consiguió
+    private record InFlight(CompletableFuture<byte[]> body, RequestPriority priority, AtomicBoolean started) {
+    }
+
+    // Cuenta los bytes leídos de una respuesta que se decodifica mientras llega
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    // Copia en memoria todo lo que se lee de una respuesta mientras se decodifica. Al cerrarla se lee lo que quede,
+    // así la copia tiene la respuesta completa aunque el decodificador no haya llegado al final
+    private static final class TeeInputStream extends FilterInputStream {
+
+        private final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        TeeInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                copy.write(value);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                copy.write(buffer, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            int length = (int) Math.min(n, 8192);
+            return Math.max(0, read(new byte[length], 0, length)); // Lo saltado también se copia
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.transferTo(copy);
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.desafio.literalura.client;
+
+import com.desafio.literalura.model.Book;
+
+import java.util.List;
+
+// Página de resultados de Gutendex ya decodificada: total de libros, enlace a la página siguiente (null si es la última)
+// y los libros sin traducir ni clasificar (lista vacía si solo se pidió la cabecera)
+public record GutendexPage(long count, String next, List<Book> books) {
+}
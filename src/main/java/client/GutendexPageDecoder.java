@@ -0,0 +1,158 @@
+package com.desafio.literalura.client;
+
+import com.desafio.literalura.model.Author;
+import com.desafio.literalura.model.Book;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Decodificador de páginas de Gutendex que lee la respuesta token a token y crea los libros directamente,
+// sin pasar por un String ni por un árbol JsonNode. Los campos que no se usan (formats, summaries, etc.) se saltan.
+@Component
+public class GutendexPageDecoder {
+
+    private final JsonFactory jsonFactory;
+
+    @Autowired
+    public GutendexPageDecoder(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    // Método para decodificar una página completa a partir de los bytes de la respuesta
+    public GutendexPage decode(byte[] body, boolean withBooks) {
+        return decode(new ByteArrayInputStream(body), withBooks);
+    }
+
+    // Método para decodificar una página completa; si withBooks es false, los resultados se saltan sin crear objetos
+    public GutendexPage decode(InputStream body, boolean withBooks) {
+        List<Book> books = new ArrayList<>();
+        GutendexPage header = decode(body, withBooks ? books::add : null);
+        return new GutendexPage(header.count(), header.next(), books);
+    }
+
+    // Método para recorrer una página entregando cada libro en cuanto se termina de leer
+    public GutendexPage decode(InputStream body, Consumer<Book> consumer) {
+        long count = 0;
+        String next = null;
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "count" -> count = parser.getValueAsLong();
+                    case "next" -> next = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    case "results" -> {
+                        if (consumer == null || value != JsonToken.START_ARRAY) {
+                            parser.skipChildren();
+                        } else {
+                            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                                consumer.accept(readBook(parser));
+                            }
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Respuesta JSON no válida de la API", e);
+        }
+        return new GutendexPage(count, next, List.of());
+    }
+
+    // Lee un libro; el parser está sobre su START_OBJECT y termina sobre su END_OBJECT
+    private Book readBook(JsonParser parser) throws IOException {
+        Book book = new Book();
+        book.setDownloadCount(0L);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> book.setGutendexId(value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null);
+                case "title" -> book.setTitle(parser.getText());
+                case "download_count" -> book.setDownloadCount(parser.getValueAsLong());
+                // Igual que JsonNode.asInt(): true = 1, false o null = 0
+                case "copyright" -> book.setYearWritten(asInt(parser, value));
+                case "authors" -> book.setAuthor(readFirstAuthor(parser, value));
+                case "languages" -> book.setLanguages(readStrings(parser, value));
+                case "subjects" -> book.setSubjects(readStrings(parser, value));
+                default -> parser.skipChildren();
+            }
+        }
+        return book;
+    }
+
+    // Solo se guarda el primer autor; el resto del arreglo se salta
+    private Author readFirstAuthor(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        Author author = null;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            if (author != null) {
+                parser.skipChildren();
+                continue;
+            }
+            author = new Author();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "name" -> author.setName(parser.getText());
+                    case "birth_year" -> author.setBirthYear(asInt(parser, token));
+                    case "death_year" -> author.setDeathYear(asInt(parser, token));
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return author;
+    }
+
+    private List<String> readStrings(JsonParser parser, JsonToken value) throws IOException {
+        List<String> values = new ArrayList<>();
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return values;
+        }
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token.isStructStart()) {
+                parser.skipChildren();
+            } else {
+                values.add(parser.getText());
+            }
+        }
+        return values;
+    }
+
+    // Conversión a entero con las mismas reglas que JsonNode.asInt()
+    private static int asInt(JsonParser parser, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_TRUE -> 1;
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT, VALUE_STRING -> parser.getValueAsInt();
+            case START_ARRAY, START_OBJECT -> {
+                parser.skipChildren();
+                yield 0;
+            }
+            default -> 0;
+        };
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Se esperaba " + expected + " y se encontró " + actual);
+        }
+    }
+}
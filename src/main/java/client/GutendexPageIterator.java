@@ -0,0 +1,50 @@
+package com.desafio.literalura.client;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+
+// Recorre las páginas de un resultado de Gutendex siguiendo el enlace "next".
+// Mientras se procesa una página, la siguiente ya se está descargando (como máximo una por adelantado).
+public class GutendexPageIterator implements Iterator<GutendexPage>, AutoCloseable {
+
+    private final GutendexClient client;
+    private final RequestPriority priority; // Prioridad de todas las páginas del recorrido
+    private CompletableFuture<GutendexPage> pending; // Página siguiente en vuelo (se decodifica al llegar), null si no quedan más
+
+    GutendexPageIterator(GutendexClient client, String firstUrl, RequestPriority priority) {
+        this.client = client;
+        this.priority = priority;
+        this.pending = client.getPageAsync(firstUrl, true, priority);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return pending != null;
+    }
+
+    @Override
+    public GutendexPage next() {
+        if (pending == null) {
+            throw new NoSuchElementException();
+        }
+        try {
+            GutendexPage page = pending.join();
+            // Lanzar la descarga de la siguiente página antes de devolver la actual
+            pending = page.next() != null ? client.getPageAsync(page.next(), true, priority) : null;
+            return page;
+        } catch (RuntimeException e) {
+            pending = null;
+            throw e;
+        }
+    }
+
+    // Cancela la descarga adelantada si el consumidor deja de leer antes del final
+    @Override
+    public void close() {
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+}
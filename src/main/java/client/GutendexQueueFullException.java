@@ -0,0 +1,16 @@
+package com.desafio.literalura.client;
+
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+
+// La petición no se hizo porque no consiguió turno en el planificador a tiempo: hay demasiadas peticiones propias
+// en cola, no es un fallo de Gutendex
+public class GutendexQueueFullException extends ResourceAccessException {
+
+    private static final long serialVersionUID = 1L;
+
+    public GutendexQueueFullException(Duration timeout) {
+        super("Demasiadas peticiones simultáneas a Gutendex; no hubo turno en " + Math.max(1, timeout.toSeconds()) + " s");
+    }
+}
@@ -0,0 +1,183 @@
+package com.desafio.literalura.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Component // Caché en memoria de las respuestas de Gutendex con TTL por endpoint y desalojo por tamaño
+public class GutendexResponseCache {
+
+    @Autowired
+    private ObjectMapper objectMapper; // Para guardar y leer la copia en disco
+
+    @Value("${gutendex.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${gutendex.cache.max-size:64MB}")
+    private DataSize maxSize; // Memoria máxima aproximada que ocupan las respuestas
+
+    @Value("${gutendex.cache.ttl.search:15m}")
+    private Duration searchTtl; // Búsquedas por título
+
+    @Value("${gutendex.cache.ttl.topic:6h}")
+    private Duration topicTtl; // Búsquedas por género
+
+    @Value("${gutendex.cache.ttl.languages:1h}")
+    private Duration languagesTtl; // Conteos por idioma
+
+    @Value("${gutendex.cache.ttl.default:30m}")
+    private Duration defaultTtl; // Cualquier otra consulta
+
+    @Value("${gutendex.cache.stale-ttl:24h}")
+    private Duration staleTtl; // Tiempo que se conserva una respuesta caducada por si Gutendex deja de responder
+
+    @Value("${gutendex.cache.snapshot-path:}")
+    private String snapshotPath; // Archivo donde se guarda la caché al apagar (vacío = desactivado)
+
+    private Cache<String, CachedResponse> cache;
+
+    // Respuesta almacenada (bytes tal como llegaron) junto con el instante en que caduca; se desaloja stale-ttl después
+    public record CachedResponse(String url, byte[] body, long expiresAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        // Caffeine usa W-TinyLFU: conserva las consultas frecuentes aunque lleguen muchas consultas únicas
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse value) -> 2 * key.length() + value.body().length)
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                        return Math.max(0, Duration.ofMillis(value.expiresAt() - System.currentTimeMillis()).plus(staleTtl).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        loadSnapshot();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Método para obtener una respuesta guardada (null si no existe o ha caducado)
+    public byte[] get(String url) {
+        if (!enabled) {
+            return null;
+        }
+        CachedResponse response = cache.getIfPresent(normalize(url));
+        return response != null && response.expiresAt() > System.currentTimeMillis() ? response.body() : null;
+    }
+
+    // Método para obtener una respuesta aunque haya caducado (null si ya se desalojó); solo cuando Gutendex no responde
+    public byte[] getStale(String url) {
+        if (!enabled) {
+            return null;
+        }
+        CachedResponse response = cache.getIfPresent(normalize(url));
+        return response != null ? response.body() : null;
+    }
+
+    // Método para guardar una respuesta con el TTL que corresponde a su endpoint
+    public void put(String url, byte[] body) {
+        if (!enabled || body == null) {
+            return;
+        }
+        String key = normalize(url);
+        cache.put(key, new CachedResponse(key, body, System.currentTimeMillis() + ttlFor(key).toMillis()));
+    }
+
+    // Método para normalizar el URL: parámetros ordenados y valores en minúsculas sin espacios sobrantes
+    String normalize(String url) {
+        UriComponents components = UriComponentsBuilder.fromUriString(url).build();
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        new TreeMap<>(components.getQueryParams()).forEach((name, values) ->
+                values.stream()
+                        .map(value -> value == null ? "" : value.trim().toLowerCase(Locale.ROOT))
+                        .sorted()
+                        .forEach(value -> params.add(name, value)));
+        return UriComponentsBuilder.newInstance()
+                .scheme(components.getScheme())
+                .host(components.getHost())
+                .port(components.getPort())
+                .path(components.getPath())
+                .queryParams(params)
+                .build()
+                .toUriString();
+    }
+
+    // Método para elegir el TTL según el tipo de consulta
+    private Duration ttlFor(String normalizedUrl) {
+        Map<String, List<String>> params = UriComponentsBuilder.fromUriString(normalizedUrl).build().getQueryParams();
+        if (params.containsKey("search")) {
+            return searchTtl;
+        } else if (params.containsKey("topic")) {
+            return topicTtl;
+        } else if (params.containsKey("languages")) {
+            return languagesTtl;
+        }
+        return defaultTtl;
+    }
+
+    // Método para recuperar la caché guardada en disco al arrancar
+    private void loadSnapshot() {
+        if (!enabled || snapshotPath.isBlank() || !new File(snapshotPath).isFile()) {
+            return;
+        }
+        try {
+            List<CachedResponse> entries = objectMapper.readValue(new File(snapshotPath), new TypeReference<>() {
+            });
+            long now = System.currentTimeMillis();
+            entries.stream()
+                    .filter(entry -> entry.expiresAt() + staleTtl.toMillis() > now)
+                    .forEach(entry -> cache.put(entry.url(), entry));
+            System.out.println("Caché de Gutendex restaurada: " + cache.estimatedSize() + " respuestas");
+        } catch (IOException e) {
+            System.err.println("No se pudo leer la caché de Gutendex: " + e.getMessage());
+        }
+    }
+
+    // Método para guardar la caché en disco al apagar la aplicación
+    @PreDestroy
+    void saveSnapshot() {
+        if (!enabled || snapshotPath.isBlank()) {
+            return;
+        }
+        try {
+            objectMapper.writeValue(new File(snapshotPath), new ArrayList<>(cache.asMap().values()));
+        } catch (IOException e) {
+            System.err.println("No se pudo guardar la caché de Gutendex: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.desafio.literalura.client;
+
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+
+// La petición no se hizo porque el circuito hacia Gutendex está abierto y no hay una respuesta anterior en la caché
+public class GutendexUnavailableException extends ResourceAccessException {
+
+    private static final long serialVersionUID = 1L;
+
+    public GutendexUnavailableException(Duration retryAfter) {
+        super("Gutendex no está disponible; se volverá a intentar en " + Math.max(1, retryAfter.toSeconds()) + " s");
+    }
+}
@@ -0,0 +1,8 @@
+package com.desafio.literalura.client;
+
+// Prioridad de una petición a Gutendex: cuando hay cola, sale primero la de mayor prioridad (el orden de declaración)
+public enum RequestPriority {
+    INTERACTIVE, // Un usuario espera la respuesta (búsquedas, listados por género, conteos)
+    REFRESH, // Mantenimiento periódico de datos ya guardados (contadores de descargas)
+    BULK // Recorridos largos (importación del catálogo, migraciones)
+}
@@ -0,0 +1,189 @@
+package com.desafio.literalura.client;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Planificador de las peticiones hacia Gutendex. Cada petición necesita un permiso (límite de peticiones simultáneas)
+// y una ficha de un token bucket (límite de peticiones por segundo, con ráfagas de hasta burst). Cuando falta alguno,
+// la petición espera en la cola de su prioridad y sale primero la de mayor prioridad; las que no son interactivas
+// además dejan libres interactiveReserve permisos, así una búsqueda de un usuario nunca espera detrás de una importación.
+// Quien espera recibe un CompletableFuture, así las llamadas asíncronas no bloquean ningún hilo mientras hacen cola.
+public class UpstreamLimiter implements AutoCloseable {
+
+    private final int permits; // Permisos en total
+    private final int interactiveReserve; // Permisos que solo pueden usar las peticiones interactivas
+    private final double tokensPerNano; // Ritmo de recarga del token bucket (0 = sin límite de ritmo)
+    private final double burst; // Fichas máximas acumuladas
+    private final Map<RequestPriority, Deque<CompletableFuture<Void>>> waiting = new EnumMap<>(RequestPriority.class);
+    private final ScheduledExecutorService timer; // Despierta la cola cuando se recarga una ficha o termina una pausa
+
+    private int available; // Permisos libres
+    private final int[] inUseBy = new int[RequestPriority.values().length]; // Permisos en uso por prioridad
+    private double tokens; // Fichas disponibles
+    private long refilledAt; // Última recarga (System.nanoTime)
+    private long pausedUntil; // Ninguna petición sale antes de este instante (Retry-After)
+    private boolean wakeupScheduled;
+
+    public UpstreamLimiter(int permits, int interactiveReserve, double requestsPerSecond, int burst) {
+        this.permits = permits;
+        this.interactiveReserve = Math.min(interactiveReserve, permits - 1);
+        this.tokensPerNano = requestsPerSecond / 1e9;
+        this.burst = Math.max(1, burst);
+        this.available = permits;
+        this.tokens = this.burst;
+        this.refilledAt = System.nanoTime();
+        this.pausedUntil = refilledAt;
+        for (RequestPriority priority : RequestPriority.values()) {
+            waiting.put(priority, new ArrayDeque<>());
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "gutendex-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Método para pedir un permiso; el futuro falla con TimeoutException si no se consigue a tiempo
+    public CompletableFuture<Void> acquire(RequestPriority priority, Duration timeout) {
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        synchronized (this) {
+            waiting.get(priority).add(permit);
+        }
+        dispatch();
+        return permit.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Método para devolver un permiso al terminar la petición, con la misma prioridad con la que se pidió
+    public void release(RequestPriority priority) {
+        synchronized (this) {
+            available++;
+            inUseBy[priority.ordinal()]--;
+        }
+        dispatch();
+    }
+
+    // Método para detener todas las salidas durante un tiempo (la API pidió esperar con Retry-After)
+    public void pause(Duration duration) {
+        synchronized (this) {
+            pausedUntil = Math.max(pausedUntil, System.nanoTime() + duration.toNanos());
+        }
+        dispatch();
+    }
+
+    // Método para repartir permisos y fichas entre las peticiones en cola, por orden de prioridad.
+    // Los futuros se completan fuera del bloqueo porque sus continuaciones lanzan la petición en el mismo hilo
+    private void dispatch() {
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+        List<RequestPriority> grantedPriorities = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+            CompletableFuture<Void> next;
+            while ((next = peekNext()) != null) {
+                if (now < pausedUntil) {
+                    scheduleWakeup(pausedUntil - now);
+                    break;
+                }
+                if (tokens < 1) {
+                    scheduleWakeup((long) Math.ceil((1 - tokens) / tokensPerNano));
+                    break;
+                }
+                RequestPriority priority = removeFirst(next);
+                available--;
+                inUseBy[priority.ordinal()]++;
+                if (tokensPerNano > 0) {
+                    tokens--;
+                }
+                granted.add(next);
+                grantedPriorities.add(priority);
+            }
+        }
+        for (int i = 0; i < granted.size(); i++) {
+            if (!granted.get(i).complete(null)) {
+                giveBack(grantedPriorities.get(i)); // Caducó justo antes de recibir el permiso: pasa al siguiente
+            }
+        }
+    }
+
+    // Primera petición en cola que puede salir con los permisos libres, o null
+    private CompletableFuture<Void> peekNext() {
+        for (RequestPriority priority : RequestPriority.values()) {
+            Deque<CompletableFuture<Void>> queue = waiting.get(priority);
+            while (!queue.isEmpty() && queue.peekFirst().isDone()) {
+                queue.pollFirst(); // Ya caducó
+            }
+            if (!queue.isEmpty()) {
+                int reserved = priority == RequestPriority.INTERACTIVE ? 0 : interactiveReserve;
+                return available > reserved ? queue.peekFirst() : null; // Las de menor prioridad no adelantan a esta
+            }
+        }
+        return null;
+    }
+
+    // Saca la petición de su cola y devuelve su prioridad
+    private RequestPriority removeFirst(CompletableFuture<Void> permit) {
+        for (Map.Entry<RequestPriority, Deque<CompletableFuture<Void>>> queue : waiting.entrySet()) {
+            if (queue.getValue().peekFirst() == permit) {
+                queue.getValue().pollFirst();
+                return queue.getKey();
+            }
+        }
+        throw new IllegalStateException("La petición no está en ninguna cola");
+    }
+
+    private void refill(long now) {
+        tokens = tokensPerNano > 0 ? Math.min(burst, tokens + (now - refilledAt) * tokensPerNano) : burst;
+        refilledAt = now;
+    }
+
+    private void giveBack(RequestPriority priority) {
+        synchronized (this) {
+            available++;
+            inUseBy[priority.ordinal()]--;
+            tokens = Math.min(burst, tokens + 1);
+        }
+        dispatch();
+    }
+
+    private void scheduleWakeup(long nanos) {
+        if (wakeupScheduled) {
+            return;
+        }
+        wakeupScheduled = true;
+        timer.schedule(() -> {
+            synchronized (this) {
+                wakeupScheduled = false;
+            }
+            dispatch();
+        }, Math.max(1, nanos), TimeUnit.NANOSECONDS);
+    }
+
+    public synchronized int queued() {
+        int count = 0;
+        for (RequestPriority priority : RequestPriority.values()) {
+            count += queued(priority);
+        }
+        return count;
+    }
+
+    public synchronized int queued(RequestPriority priority) {
+        return (int) waiting.get(priority).stream().filter(permit -> !permit.isDone()).count();
+    }
+
+    public synchronized int inUse() {
+        return permits - available;
+    }
+
+    public synchronized int inUse(RequestPriority priority) {
+        return inUseBy[priority.ordinal()];
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+}
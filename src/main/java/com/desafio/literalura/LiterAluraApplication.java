@@ -4,17 +4,28 @@ import com.desafio.literalura.model.Author;
 import com.desafio.literalura.model.Book;
 import com.desafio.literalura.service.AuthorService;
 import com.desafio.literalura.service.BookService;
+import com.desafio.literalura.service.CatalogImportService;
+import com.desafio.literalura.service.DownloadCountRefresher;
+import com.desafio.literalura.service.GenreReclassificationService;
+import com.desafio.literalura.service.GutendexIdMigrationService;
+import com.desafio.literalura.service.LanguageStatsService;
+import com.desafio.literalura.service.RankedBook;
+import com.desafio.literalura.service.SearchRankingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Page;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 
 @SpringBootApplication
+@EnableScheduling // Habilita las tareas periódicas (por ejemplo, la reconstrucción de índices en memoria)
 public class LiterAluraApplication {
 
     // Servicios de libros y autores inyectados automáticamente por Spring
@@ -24,6 +35,23 @@ public class LiterAluraApplication {
     @Autowired
     private AuthorService authorService;
 
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private GenreReclassificationService genreReclassificationService;
+
+    @Autowired
+    private LanguageStatsService languageStatsService;
+
+    @Autowired
+    private GutendexIdMigrationService gutendexIdMigrationService;
+
+    @Autowired
+    private DownloadCountRefresher downloadCountRefresher;
+
+    private static final int AUTHORS_PAGE_SIZE = 20; // Autores que se muestran por página
+
     // Punto de entrada principal de la aplicación
     public static void main(String[] args) {
         SpringApplication.run(LiterAluraApplication.class, args);
@@ -33,6 +61,27 @@ public class LiterAluraApplication {
     @Bean
     public CommandLineRunner commandLineRunner() {
         return args -> {
+            // Modo de importación masiva: --import-catalog [--restart-import]
+            if (Arrays.asList(args).contains("--import-catalog")) {
+                catalogImportService.importCatalog(Arrays.asList(args).contains("--restart-import"));
+                return;
+            }
+            // Reclasificación de los libros guardados tras cambiar la taxonomía de géneros
+            if (Arrays.asList(args).contains("--reclassify-genres")) {
+                genreReclassificationService.reclassifyAll();
+                return;
+            }
+            // Migración única de los libros guardados antes de identificarlos por su ID de Gutendex
+            if (Arrays.asList(args).contains("--migrate-gutendex-ids")) {
+                gutendexIdMigrationService.migrateAll();
+                return;
+            }
+            // Refresco inmediato de los contadores de descargas (también se hace solo cada refresh-interval)
+            if (Arrays.asList(args).contains("--refresh-download-counts")) {
+                downloadCountRefresher.refreshAll();
+                return;
+            }
+
             Scanner scanner = new Scanner(System.in); // Scanner para leer la entrada del usuario
 
             // Bucle principal para interactuar con el usuario
@@ -109,45 +158,64 @@ public class LiterAluraApplication {
         }
     }
 
-    // Método para listar autores que estaban vivos en un año específico
+    // Método para listar autores que estaban vivos en un año específico, de página en página
     private void listAuthorsAliveInYear(Scanner scanner) {
         System.out.println("Introduce el año:");
         int year = scanner.nextInt();
         scanner.nextLine(); // Consumir el salto de línea
-        List<Author> authors = authorService.getAuthorsAliveInYear(year); // Obtener autores vivos en un año
-        if (!authors.isEmpty()) {
-            System.out.println("Autores vivos en el año " + year + ":");
+        int page = 0;
+        while (true) {
+            Page<Author> authors = authorService.getAuthorsAliveInYear(year, page, AUTHORS_PAGE_SIZE); // Obtener una página de autores
+            if (authors.isEmpty()) {
+                System.out.println("No se encontraron autores vivos en el año especificado.");
+                return;
+            }
+            System.out.println("Autores vivos en el año " + year + " (página " + (page + 1) + " de " + authors.getTotalPages() + "):");
             for (Author author : authors) {
                 System.out.println(author.getName() + " (Nacimiento: " + author.getBirthYear() +
                         ", Fallecimiento: " + (author.getDeathYear() != null ? author.getDeathYear() : "N/A") + ")");
             }
-        } else {
-            System.out.println("No se encontraron autores vivos en el año especificado.");
+            if (!authors.hasNext()) {
+                return;
+            }
+            System.out.println("¿Mostrar la página siguiente? (s/n)");
+            if (!scanner.nextLine().trim().equalsIgnoreCase("s")) {
+                return;
+            }
+            page++;
         }
     }
 
-    // Método para mostrar la cantidad de libros en un idioma específico
+    // Método para mostrar la cantidad de libros en uno o varios idiomas (las consultas a la API se hacen en paralelo)
     private void showBookCountByLanguage(Scanner scanner) {
-        System.out.println("Introduce el código de idioma (ej. en, es):");
-        String language = scanner.nextLine().toLowerCase();
-        Map<String, Long> bookCount = bookService.getBookCountByLanguage(language); // Obtener cantidad de libros por idioma
+        System.out.println("Introduce uno o varios códigos de idioma separados por comas (ej. en, es) o \"todos\":");
+        String input = scanner.nextLine().trim().toLowerCase();
+        List<String> languages = input.equals("todos") ? List.of("all") : Arrays.asList(input.split("\\s*,\\s*"));
+        Map<String, Long> bookCount = languageStatsService.getRemoteCounts(languages).join(); // Obtener cantidad de libros por idioma
         if (!bookCount.isEmpty()) {
-            System.out.println("Cantidad de libros en " + language + ": " + bookCount.get(language));
+            bookCount.forEach((language, count) -> System.out.println("Cantidad de libros en " + language + ": " + count));
         } else {
             System.out.println("No se encontró información para el idioma especificado.");
         }
     }
 
-    // Método para mostrar los libros más buscados
+    // Método para mostrar los libros más buscados en el periodo elegido
     private void showMostSearchedBooks(Scanner scanner) {
         System.out.println("Introduce el número de libros a mostrar:");
         int limit = scanner.nextInt();
         scanner.nextLine(); // Consumir el salto de línea
-        List<Book> mostSearchedBooks = bookService.getMostSearchedBooks(limit); // Obtener libros más buscados
+        System.out.println("Elige el periodo: 1. Última hora  2. Último día  3. Última semana  4. Desde siempre");
+        SearchRankingService.Window window = switch (scanner.nextLine().trim()) {
+            case "1" -> SearchRankingService.Window.HOUR;
+            case "2" -> SearchRankingService.Window.DAY;
+            case "3" -> SearchRankingService.Window.WEEK;
+            default -> SearchRankingService.Window.ALL_TIME;
+        };
+        List<RankedBook> mostSearchedBooks = bookService.getMostSearchedBooks(limit, window); // Obtener libros más buscados
         if (!mostSearchedBooks.isEmpty()) {
             System.out.println("Los libros más buscados son:");
-            for (Book book : mostSearchedBooks) {
-                System.out.println(book.getTitle() + " - Búsquedas: " + book.getSearchCount());
+            for (RankedBook ranked : mostSearchedBooks) {
+                System.out.println(ranked.book().getTitle() + " - Búsquedas: " + ranked.searches());
             }
         } else {
             System.out.println("No hay información de libros buscados.");
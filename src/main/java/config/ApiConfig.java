@@ -1,14 +1,91 @@
 package com.desafio.literalura.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @Configuration
 public class ApiConfig {
 
+    @Value("${gutendex.http.max-connections:50}")
+    private int maxConnections; // Conexiones máximas en el pool
+
+    @Value("${gutendex.http.max-connections-per-route:20}")
+    private int maxConnectionsPerRoute; // Conexiones máximas hacia un mismo host
+
+    @Value("${gutendex.http.connect-timeout:5s}")
+    private Duration connectTimeout; // Tiempo máximo para establecer la conexión
+
+    @Value("${gutendex.http.read-timeout:15s}")
+    private Duration readTimeout; // Tiempo máximo de espera de la respuesta
+
+    @Value("${gutendex.http.keep-alive:30s}")
+    private Duration keepAlive; // Tiempo que una conexión ociosa se mantiene abierta para reutilizarla
+
+    // Cliente HTTP síncrono con pool de conexiones keep-alive
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient() {
+        return HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnectionsPerRoute)
+                        .setDefaultConnectionConfig(connectionConfig())
+                        .build())
+                .setDefaultRequestConfig(requestConfig())
+                .evictIdleConnections(TimeValue.of(keepAlive))
+                .build();
+    }
+
+    // Cliente HTTP asíncrono: las respuestas se atienden desde el reactor de E/S sin un hilo por petición
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient httpAsyncClient() {
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnectionsPerRoute)
+                        .setDefaultConnectionConfig(connectionConfig())
+                        .build())
+                .setDefaultRequestConfig(requestConfig())
+                .evictIdleConnections(TimeValue.of(keepAlive))
+                .build();
+        client.start();
+        return client;
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    // Timeouts de conexión y lectura comunes a ambos clientes
+    private ConnectionConfig connectionConfig() {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(readTimeout))
+                .setTimeToLive(TimeValue.ofMinutes(5))
+                .build();
+    }
+
+    // Configuración por petición: espera máxima por una conexión libre del pool y por la respuesta
+    private RequestConfig requestConfig() {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(connectTimeout))
+                .setResponseTimeout(Timeout.of(readTimeout))
+                .setConnectionKeepAlive(TimeValue.of(keepAlive))
+                .build();
     }
-}
\ No newline at end of file
+}
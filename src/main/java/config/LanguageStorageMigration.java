@@ -0,0 +1,69 @@
+package com.desafio.literalura.config;
+
+import com.desafio.literalura.repository.LanguageDictionary;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Los idiomas se guardaban en la tabla book_languages (una fila por libro e idioma); ahora van en books.language_ids
+// como números del diccionario language_codes. Al arrancar se copian los idiomas de la tabla vieja, si existe,
+// y se crea el índice GIN que JPA no sabe declarar. La tabla vieja se conserva salvo que se pida borrarla con
+// literalura.migrations.drop-legacy-language-table=true; mientras se conserve, la copia se repite en cada arranque
+// pero solo completa los libros que todavía no tienen idiomas.
+@Component
+public class LanguageStorageMigration {
+
+    @Autowired
+    private LanguageDictionary languageDictionary; // Garantiza que Hibernate ya creó las tablas
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${literalura.migrations.drop-legacy-language-table:false}")
+    private boolean dropLegacyTable; // Borrar book_languages después de copiar sus idiomas
+
+    @PostConstruct
+    void migrate() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_books_language_ids ON books USING GIN (language_ids)");
+        Boolean legacy = jdbcTemplate.queryForObject("SELECT to_regclass('book_languages') IS NOT NULL", Boolean.class);
+        if (!Boolean.TRUE.equals(legacy)) {
+            return;
+        }
+        Integer migrated = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("INSERT INTO language_codes (id, code) SELECT nextval('language_codes_seq'), d.code"
+                    + " FROM (SELECT DISTINCT lower(language) AS code FROM book_languages WHERE language IS NOT NULL) d"
+                    + " ON CONFLICT (code) DO NOTHING");
+            int rows = jdbcTemplate.update("UPDATE books b SET language_ids = m.ids FROM"
+                    + " (SELECT bl.book_id, array_agg(DISTINCT c.id ORDER BY c.id) AS ids FROM book_languages bl"
+                    + " JOIN language_codes c ON c.code = lower(bl.language) GROUP BY bl.book_id) m"
+                    + " WHERE b.id = m.book_id AND (b.language_ids IS NULL OR cardinality(b.language_ids) = 0)");
+            if (dropLegacyTable) {
+                jdbcTemplate.execute("DROP TABLE book_languages"); // Ya no la usa nadie; se borra con los datos ya copiados
+            } else {
+                dropForeignKeys();
+            }
+            return rows;
+        });
+        languageDictionary.reload();
+        System.out.println("Idiomas migrados de book_languages a books.language_ids: " + migrated + " libros"
+                + (dropLegacyTable ? " (tabla book_languages borrada)" : " (se conserva la tabla book_languages)"));
+    }
+
+    // Método para quitar las claves foráneas de la tabla vieja hacia books: ya nadie la actualiza, y sin esto
+    // no se podrían borrar los libros que todavía tienen filas en ella (por ejemplo, al unir duplicados)
+    private void dropForeignKeys() {
+        List<String> constraints = jdbcTemplate.queryForList("SELECT conname FROM pg_constraint"
+                + " WHERE conrelid = 'book_languages'::regclass AND contype = 'f'", String.class);
+        for (String constraint : constraints) {
+            jdbcTemplate.execute("ALTER TABLE book_languages DROP CONSTRAINT \"" + constraint.replace("\"", "\"\"") + "\"");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.desafio.literalura.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Las tablas creadas cuando los IDs eran IDENTITY ya tienen filas; al pasar a secuencias
+// hay que adelantar cada secuencia por encima del mayor ID existente para no repetir claves.
+@Component
+public class SequenceAlignment {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory; // Garantiza que Hibernate ya creó las secuencias
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void alignSequences() {
+        align("books", "books_seq");
+        align("authors", "authors_seq");
+    }
+
+    // Con el optimizador "pooled", cada valor de la secuencia es el extremo superior de un bloque de
+    // Book.ID_ALLOCATION_SIZE IDs, así que basta con que el último valor no sea menor que el mayor ID.
+    private void align(String table, String sequence) {
+        jdbcTemplate.query("SELECT setval('" + sequence + "', m.max_id) FROM "
+                + "(SELECT COALESCE(MAX(id), 0) AS max_id FROM " + table + ") m, " + sequence + " s "
+                + "WHERE s.last_value < m.max_id", rs -> {
+            System.out.println("Secuencia " + sequence + " adelantada hasta " + rs.getLong(1));
+        });
+    }
+}
@@ -1,22 +1,51 @@
 package com.desafio.literalura.controller;
 
+import com.desafio.literalura.client.GutendexQueueFullException;
+import com.desafio.literalura.client.GutendexUnavailableException;
+import com.desafio.literalura.controller.dto.AuthorDto;
+import com.desafio.literalura.controller.dto.BookDto;
+import com.desafio.literalura.controller.dto.KeysetPage;
+import com.desafio.literalura.controller.dto.LanguageCountDto;
+import com.desafio.literalura.controller.dto.PageResponse;
+import com.desafio.literalura.controller.dto.RankedBookDto;
 import com.desafio.literalura.model.Book;
-import com.desafio.literalura.model.Author;
-import com.desafio.literalura.service.BookService;
 import com.desafio.literalura.service.AuthorService;
+import com.desafio.literalura.service.BookService;
+import com.desafio.literalura.service.LanguageStatsService;
+import com.desafio.literalura.service.SearchRankingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Controller;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.ResponseBody;
-
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
 
-@Controller
+// API REST en JSON. Las consultas que llaman a Gutendex devuelven un CompletableFuture para no ocupar
+// un hilo del servidor mientras esperan; las respuestas llevan ETag y se comprimen (ver WebConfig y application.properties).
+@RestController
 public class LiterAluraController {
 
+    private static final int MAX_PAGE_SIZE = 100; // Tamaño máximo de página que se acepta
+
     // Servicios inyectados para interactuar con libros y autores
     @Autowired
     private BookService bookService;
@@ -24,159 +53,176 @@ public class LiterAluraController {
     @Autowired
     private AuthorService authorService;
 
-    // Scanner para leer la entrada del usuario
-    private Scanner scanner = new Scanner(System.in);
+    @Autowired
+    private LanguageStatsService languageStatsService;
+
+    @Autowired
+    private ObjectMapper objectMapper; // Para escribir las exportaciones línea a línea
 
     // Ruta principal que responde con un mensaje de bienvenida
     @GetMapping("/")
-    @ResponseBody
     public String home() {
         return "Bienvenido a LiterAlura";
     }
 
-    // Ruta para manejar la interacción con el usuario y ofrecer opciones
-    @PostMapping("/interact")
-    @ResponseBody
-    public String interact() {
-        while (true) {
-            // Menú de opciones para el usuario
-            System.out.println("\nBienvenido a LiterAlura. Elige una opción:");
-            System.out.println("1. Buscar libros por título");
-            System.out.println("2. Listar libros por género literario");
-            System.out.println("3. Listar autores por género literario");
-            System.out.println("4. Listar autores vivos en un año específico");
-            System.out.println("5. Mostrar cantidad de libros por idioma");
-            System.out.println("6. Libros más buscados");
-            System.out.println("7. Salir");
-
-            // Lectura de la opción seleccionada
-            int choice = scanner.nextInt();
-            scanner.nextLine(); // Consumir el salto de línea
-
-            // Llamar al método correspondiente según la opción seleccionada
-            switch (choice) {
-                case 1:
-                    searchBookByTitle();
-                    break;
-                case 2:
-                    listBooksByGenre();
-                    break;
-                case 3:
-                    listAuthorsByGenre();
-                    break;
-                case 4:
-                    listAuthorsAliveInYear();
-                    break;
-                case 5:
-                    showBookCountByLanguage();
-                    break;
-                case 6:
-                    showMostSearchedBooks();
-                    break;
-                case 7:
-                    return "Gracias por usar LiterAlura. ¡Hasta pronto!";
-                default:
-                    System.out.println("Opción no válida. Por favor, intenta de nuevo.");
+    // Buscar un libro por título (primero entre los guardados y, si no está, en Gutendex)
+    @GetMapping("/api/books/search")
+    public CompletableFuture<ResponseEntity<BookDto>> searchBookByTitle(@RequestParam String title) {
+        return bookService.searchBookByTitleAsync(title).thenApply(book -> {
+            if (book == null) {
+                return ResponseEntity.notFound().build();
             }
-        }
+            bookService.incrementSearchCount(book); // Incrementar el contador de búsquedas del libro
+            return ResponseEntity.ok(BookDto.from(book));
+        });
     }
 
-    // Método para buscar libros por título
-    private void searchBookByTitle() {
-        System.out.println("Introduce el título del libro:");
-        String title = scanner.nextLine();
-        // Llamar al servicio de libros para buscar por título
-        Book book = bookService.searchBookByTitle(title);
-        if (book != null) {
-            // Mostrar la información del libro encontrado
-            System.out.println("Nombre del libro: " + book.getTitle());
-            System.out.println("Autor: " + (book.getAuthor() != null ? book.getAuthor().getName() : "Desconocido"));
-            System.out.println("Género literario: " + book.getGenre());
-            System.out.println("Idiomas: " + String.join(", ", book.getLanguages()));
-            bookService.incrementSearchCount(book); // Incrementar el contador de búsquedas del libro
-        } else {
-            System.out.println("No se encontró el libro.");
-        }
+    // Listar libros de un género literario, por páginas; con languages=es,en solo los que están en todos esos idiomas.
+    // Solo se piden a Gutendex las páginas necesarias para la pedida
+    @GetMapping("/api/books")
+    public CompletableFuture<PageResponse<BookDto>> listBooksByGenre(@RequestParam String genre,
+                                                                     @RequestParam(required = false) List<String> languages,
+                                                                     @RequestParam(defaultValue = "0") int page,
+                                                                     @RequestParam(defaultValue = "20") int size) {
+        checkPage(page, size);
+        CompletableFuture<Page<Book>> books = languages == null
+                ? bookService.getBooksByGenrePageAsync(genre, page, size)
+                : bookService.getBooksByGenrePageAsync(genre, languages, page, size);
+        return books.thenApply(result -> PageResponse.from(result, BookDto::from));
     }
 
-    // Método para listar libros según un género literario
-    private void listBooksByGenre() {
-        System.out.println("Introduce el género literario:");
-        String genre = scanner.nextLine();
-        // Llamar al servicio para obtener los títulos de libros por género
-        List<String> bookTitles = bookService.getBookTitlesByGenre(genre);
-        if (!bookTitles.isEmpty()) {
-            // Mostrar los títulos de libros encontrados
-            System.out.println("Libros encontrados:");
-            bookTitles.forEach(System.out::println);
-        } else {
-            System.out.println("No se encontraron libros para el género especificado.");
-        }
+    // Listar los libros guardados que están en todos los idiomas pedidos (languages=es,en), por páginas
+    @GetMapping("/api/books/by-languages")
+    public PageResponse<BookDto> listStoredBooksByLanguages(@RequestParam List<String> languages,
+                                                            @RequestParam(defaultValue = "0") int page,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        checkPage(page, size);
+        return PageResponse.from(bookService.getStoredBooksByLanguages(languages, page, size), BookDto::from);
     }
 
-    // Método para listar autores según un género literario
-    private void listAuthorsByGenre() {
-        System.out.println("Introduce el género literario:");
-        String genre = scanner.nextLine();
-        // Llamar al servicio para obtener los autores por género
-        List<Author> authors = authorService.getAuthorsByBookGenre(genre);
-        if (!authors.isEmpty()) {
-            // Mostrar los nombres de los autores encontrados
-            System.out.println("Autores encontrados:");
-            authors.forEach(author -> System.out.println(author.getName()));
-        } else {
-            System.out.println("No se encontraron autores para el género especificado.");
-        }
+    // Listar todos los libros guardados de a un bloque, por ID: after es el nextAfter de la respuesta anterior (0 para empezar)
+    @GetMapping("/api/books/stored")
+    public KeysetPage<BookDto> listStoredBooks(@RequestParam(defaultValue = "0") long after,
+                                               @RequestParam(defaultValue = "20") int size) {
+        checkPage(0, size);
+        return KeysetPage.of(bookService.getBooksAfter(after, size), size, BookDto::from, book -> book.getId());
     }
 
-    // Método para listar autores vivos en un año específico
-    private void listAuthorsAliveInYear() {
-        System.out.println("Introduce el año:");
-        int year = scanner.nextInt();
-        scanner.nextLine(); // Consumir el salto de línea
-        // Llamar al servicio para obtener los autores vivos en ese año
-        List<Author> authors = authorService.getAuthorsAliveInYear(year);
-        if (!authors.isEmpty()) {
-            // Mostrar los autores vivos en el año especificado
-            System.out.println("Autores vivos en el año " + year + ":");
-            for (Author author : authors) {
-                System.out.println(author.getName() + " (Nacimiento: " + author.getBirthYear() +
-                        ", Fallecimiento: " + (author.getDeathYear() != null ? author.getDeathYear() : "N/A") + ")");
-            }
-        } else {
-            System.out.println("No se encontraron autores vivos en el año especificado.");
-        }
+    // Exportar todos los libros guardados en JSON por líneas (un libro por línea), sin tenerlos todos en memoria
+    @GetMapping("/api/books/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(HttpServletRequest request) {
+        return export(request, out -> bookService.forEachBook(book -> writeLine(out, BookDto.from(book))));
+    }
+
+    // Listar los autores de los libros de un género literario, por páginas
+    @GetMapping("/api/authors")
+    public CompletableFuture<PageResponse<AuthorDto>> listAuthorsByGenre(@RequestParam String genre,
+                                                                         @RequestParam(defaultValue = "0") int page,
+                                                                         @RequestParam(defaultValue = "20") int size) {
+        checkPage(page, size);
+        return authorService.getAuthorsByBookGenreAsync(genre)
+                .thenApply(authors -> PageResponse.of(authors, page, size, AuthorDto::from));
+    }
+
+    // Listar todos los autores guardados de a un bloque, por ID: after es el nextAfter de la respuesta anterior (0 para empezar)
+    @GetMapping("/api/authors/stored")
+    public KeysetPage<AuthorDto> listStoredAuthors(@RequestParam(defaultValue = "0") long after,
+                                                   @RequestParam(defaultValue = "20") int size) {
+        checkPage(0, size);
+        return KeysetPage.of(authorService.getAuthorsAfter(after, size), size, AuthorDto::from, author -> author.getId());
+    }
+
+    // Exportar todos los autores guardados en JSON por líneas, sin tenerlos todos en memoria
+    @GetMapping("/api/authors/export")
+    public ResponseEntity<StreamingResponseBody> exportAuthors(HttpServletRequest request) {
+        return export(request, out -> authorService.forEachAuthor(author -> writeLine(out, AuthorDto.from(author))));
+    }
+
+    // Listar los autores vivos en un año, por páginas
+    @GetMapping("/api/authors/alive")
+    public PageResponse<AuthorDto> listAuthorsAliveInYear(@RequestParam int year,
+                                                          @RequestParam(defaultValue = "0") int page,
+                                                          @RequestParam(defaultValue = "20") int size) {
+        checkPage(page, size);
+        return PageResponse.from(authorService.getAuthorsAliveInYear(year, page, size), AuthorDto::from);
+    }
+
+    // Cantidad de libros disponibles en un idioma (código de dos letras, ej. en, es)
+    @GetMapping("/api/languages/{language}/count")
+    public CompletableFuture<ResponseEntity<LanguageCountDto>> showBookCountByLanguage(@PathVariable String language) {
+        String code = language.toLowerCase(Locale.ROOT);
+        return bookService.getBookCountByLanguageAsync(code).thenApply(counts -> counts.containsKey(code)
+                ? ResponseEntity.ok(new LanguageCountDto(code, counts.get(code)))
+                : ResponseEntity.status(HttpStatus.BAD_GATEWAY).build()); // La API externa no respondió
+    }
+
+    // Cantidad de libros en varios idiomas (languages=en,es,fr o all): en Gutendex (source=remote) o entre los guardados (source=local)
+    @GetMapping("/api/languages/counts")
+    public CompletableFuture<List<LanguageCountDto>> showBookCountsByLanguage(@RequestParam(defaultValue = "all") List<String> languages,
+                                                                             @RequestParam(defaultValue = "remote") String source) {
+        CompletableFuture<Map<String, Long>> counts = switch (source.toLowerCase(Locale.ROOT)) {
+            case "remote" -> languageStatsService.getRemoteCounts(languages);
+            case "local" -> CompletableFuture.completedFuture(languageStatsService.getLocalCounts(languages));
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Origen no válido: " + source);
+        };
+        return counts.thenApply(result -> result.entrySet().stream()
+                .map(entry -> new LanguageCountDto(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(LanguageCountDto::count).reversed())
+                .toList());
     }
 
-    // Método para mostrar la cantidad de libros en un idioma específico
-    private void showBookCountByLanguage() {
-        System.out.println("Introduce el código de idioma (ej. en, es):");
-        String language = scanner.nextLine().toLowerCase();
-        // Llamar al servicio para obtener el conteo de libros por idioma
-        Map<String, Long> bookCount = bookService.getBookCountByLanguage(language);
-        if (!bookCount.isEmpty()) {
-            // Mostrar la cantidad de libros en el idioma especificado
-            System.out.println("Cantidad de libros en " + language + ": " + bookCount.get(language));
-        } else {
-            System.out.println("No se encontró información para el idioma especificado.");
+    // Libros más buscados en un periodo: hour, day, week o all
+    @GetMapping("/api/books/most-searched")
+    public List<RankedBookDto> showMostSearchedBooks(@RequestParam(defaultValue = "10") int limit,
+                                                     @RequestParam(defaultValue = "all") String period) {
+        checkPage(0, limit);
+        SearchRankingService.Window window = switch (period.toLowerCase(Locale.ROOT)) {
+            case "hour" -> SearchRankingService.Window.HOUR;
+            case "day" -> SearchRankingService.Window.DAY;
+            case "week" -> SearchRankingService.Window.WEEK;
+            case "all" -> SearchRankingService.Window.ALL_TIME;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Periodo no válido: " + period);
+        };
+        return bookService.getMostSearchedBooks(limit, window).stream()
+                .map(RankedBookDto::from)
+                .toList();
+    }
+
+    // Gutendex no está disponible (circuito abierto o sin turno en la cola propia): se puede reintentar más tarde
+    @ExceptionHandler({GutendexUnavailableException.class, GutendexQueueFullException.class})
+    public ResponseEntity<Void> handleGutendexUnavailable(RestClientException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
+    // La API externa falló o no respondió
+    @ExceptionHandler(RestClientException.class)
+    public ResponseEntity<Void> handleGutendexError(RestClientException e) {
+        System.err.println("Error al consultar Gutendex: " + e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+    }
+
+    // Método para responder una exportación a medida que se escribe; sin ETag, que obligaría a guardar la respuesta completa
+    private ResponseEntity<StreamingResponseBody> export(HttpServletRequest request, StreamingResponseBody body) {
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // El cliente cerró la conexión: se corta el recorrido
         }
     }
 
-    // Método para mostrar los libros más buscados
-    private void showMostSearchedBooks() {
-        System.out.println("Introduce el número de libros a mostrar:");
-        int limit = scanner.nextInt();
-        scanner.nextLine(); // Consumir el salto de línea
-        // Llamar al servicio para obtener los libros más buscados
-        List<Book> mostSearchedBooks = bookService.getMostSearchedBooks(limit);
-        if (!mostSearchedBooks.isEmpty()) {
-            // Mostrar los libros más buscados
-            System.out.println("Los libros más buscados son:");
-            for (Book book : mostSearchedBooks) {
-                System.out.println(book.getTitle() + " - Búsquedas: " + book.getSearchCount());
-            }
-        } else {
-            System.out.println("No hay información de libros buscados.");
+    // Método para validar los parámetros de paginación. El primer resultado (page * size) tiene que caber en un int,
+    // que es lo que aceptan las consultas JPA; más allá desbordaría
+    private void checkPage(int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE || (long) page * size > Integer.MAX_VALUE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "La página debe ser >= 0, el tamaño estar entre 1 y " + MAX_PAGE_SIZE
+                            + " y page * size no superar " + Integer.MAX_VALUE);
         }
     }
 }
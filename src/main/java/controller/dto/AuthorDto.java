@@ -0,0 +1,11 @@
+package com.desafio.literalura.controller.dto;
+
+import com.desafio.literalura.model.Author;
+
+// Datos de un autor que devuelve la API REST
+public record AuthorDto(Long id, String name, Integer birthYear, Integer deathYear) {
+
+    public static AuthorDto from(Author author) {
+        return new AuthorDto(author.getId(), author.getName(), author.getBirthYear(), author.getDeathYear());
+    }
+}
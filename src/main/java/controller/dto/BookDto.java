@@ -0,0 +1,16 @@
+package com.desafio.literalura.controller.dto;
+
+import com.desafio.literalura.model.Book;
+
+import java.util.List;
+
+// Datos de un libro que devuelve la API REST (el autor se incluye resumido)
+public record BookDto(Long id, Long gutendexId, String title, AuthorDto author, String genre, List<String> genres,
+                      List<String> languages, Long downloadCount) {
+
+    public static BookDto from(Book book) {
+        return new BookDto(book.getId(), book.getGutendexId(), book.getTitle(),
+                book.getAuthor() != null ? AuthorDto.from(book.getAuthor()) : null,
+                book.getGenre(), List.copyOf(book.getGenres()), List.copyOf(book.getLanguages()), book.getDownloadCount());
+    }
+}
@@ -0,0 +1,15 @@
+package com.desafio.literalura.controller.dto;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+// Bloque de resultados paginado por ID: para pedir el siguiente se envía nextAfter como after; es null en el último bloque
+public record KeysetPage<T>(List<T> content, int size, Long nextAfter) {
+
+    // Método para convertir un bloque leído de la base de datos; si vino completo puede haber más después del último ID
+    public static <E, T> KeysetPage<T> of(List<E> items, int size, Function<E, T> mapper, ToLongFunction<E> id) {
+        Long nextAfter = items.size() == size ? id.applyAsLong(items.get(items.size() - 1)) : null;
+        return new KeysetPage<>(items.stream().map(mapper).toList(), size, nextAfter);
+    }
+}
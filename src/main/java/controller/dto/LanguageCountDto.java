@@ -0,0 +1,5 @@
+package com.desafio.literalura.controller.dto;
+
+// Cantidad de libros disponibles en un idioma
+public record LanguageCountDto(String language, long count) {
+}
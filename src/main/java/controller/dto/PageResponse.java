@@ -0,0 +1,25 @@
+package com.desafio.literalura.controller.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Página de resultados de la API REST con los datos necesarios para pedir las siguientes
+public record PageResponse<T>(List<T> content, int page, int size, long totalElements, int totalPages) {
+
+    // Método para convertir una página de Spring Data
+    public static <E, T> PageResponse<T> from(Page<E> page, Function<E, T> mapper) {
+        return new PageResponse<>(page.getContent().stream().map(mapper).toList(),
+                page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages());
+    }
+
+    // Método para paginar una lista ya cargada en memoria. La posición se calcula en long: con un número de página
+    // muy grande page * size desbordaría un int; una página más allá del final queda vacía
+    public static <E, T> PageResponse<T> of(List<E> all, int page, int size, Function<E, T> mapper) {
+        int from = (int) Math.min((long) page * size, all.size());
+        int to = Math.min(from + size, all.size());
+        return new PageResponse<>(all.subList(from, to).stream().map(mapper).toList(),
+                page, size, all.size(), (all.size() + size - 1) / size);
+    }
+}
@@ -0,0 +1,11 @@
+package com.desafio.literalura.controller.dto;
+
+import com.desafio.literalura.service.RankedBook;
+
+// Libro del ranking de más buscados con sus búsquedas en el periodo pedido
+public record RankedBookDto(BookDto book, long searches) {
+
+    public static RankedBookDto from(RankedBook ranked) {
+        return new RankedBookDto(BookDto.from(ranked.book()), ranked.searches());
+    }
+}
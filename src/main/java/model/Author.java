@@ -5,17 +5,24 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "authors") // Define la tabla "authors" en la base de datos
+@Table(name = "authors", // Define la tabla "authors" en la base de datos
+        indexes = @Index(name = "idx_authors_lifespan", columnList = "birth_year, death_year")) // Consultas por años de vida
 public class Author {
 
+    public static final int ID_ALLOCATION_SIZE = 50; // IDs que Hibernate reserva en cada llamada a la secuencia
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // La clave primaria se genera automáticamente
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "authors_seq") // Secuencia con reserva de IDs por bloques para poder insertar en lote
+    @SequenceGenerator(name = "authors_seq", sequenceName = "authors_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(unique = true) // El nombre debe ser único en la base de datos
     private String name;
 
+    @Column(name = "birth_year")
     private Integer birthYear; // Año de nacimiento del autor
+
+    @Column(name = "death_year")
     private Integer deathYear; // Año de fallecimiento del autor
 
     // Relación uno a muchos entre Author y Book (un autor puede tener varios libros)
@@ -1,17 +1,33 @@
 package com.desafio.literalura.model;
 
+import com.desafio.literalura.repository.BookLanguageListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 @Entity
-@Table(name = "books") // Define la tabla "books" en la base de datos
+@EntityListeners(BookLanguageListener.class) // Codifica y decodifica los idiomas con el diccionario de language_codes
+@Table(name = "books", // Define la tabla "books" en la base de datos
+        indexes = {
+                @Index(name = "idx_books_search_count", columnList = "search_count"), // Arranque del ranking de más buscados
+                @Index(name = "uk_books_gutendex_id", columnList = "gutendex_id", unique = true) // Clave natural para insertar o actualizar
+        })
 public class Book {
 
+    public static final int ID_ALLOCATION_SIZE = 50; // IDs que Hibernate reserva en cada llamada a la secuencia
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // La clave primaria se genera automáticamente
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq") // Secuencia con reserva de IDs por bloques para poder insertar en lote
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
+    @Column(name = "gutendex_id")
+    private Long gutendexId; // ID del libro en Gutendex; no cambia al traducir el título (null en libros anteriores sin migrar)
+
     private String title; // Título del libro
 
     // Relación muchos a uno entre Book y Author (un libro tiene un solo autor)
@@ -21,14 +37,30 @@ public class Book {
 
     private Long downloadCount; // Contador de descargas del libro
     private Integer yearWritten; // Año en que fue escrito el libro
-    private String genre; // Género literario del libro
+    private String genre; // Género literario principal del libro
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "genres", columnDefinition = "text[]")
+    private List<String> genres = new ArrayList<>(); // Todos los géneros del libro, del principal al menos prioritario
+
+    @Column(name = "search_count")
     private Long searchCount; // Contador de búsquedas del libro
 
-    // Relación de colección de elementos para almacenar los idiomas en los que está disponible el libro
-    @ElementCollection
-    @CollectionTable(name = "book_languages", joinColumns = @JoinColumn(name = "book_id"))
-    @Column(name = "language") // Columna que almacena los idiomas en la tabla "book_languages"
-    private List<String> languages = new ArrayList<>(); // Lista de idiomas del libro
+    // Idiomas del libro como números del diccionario (ver LanguageDictionary), ordenados; el índice GIN
+    // idx_books_language_ids permite filtrar por varios idiomas a la vez sin unir otra tabla
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "language_ids", columnDefinition = "smallint[]")
+    private short[] languageIds = new short[0];
+
+    @Transient
+    private BitSet languageSet; // Los mismos idiomas como conjunto de bits, un bit por número; se arma al primer uso
+
+    @Transient
+    private List<String> languages = new ArrayList<>(); // Códigos de idioma del libro (en, es...), decodificados al cargarlo
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "subjects", columnDefinition = "text[]")
+    private List<String> subjects = new ArrayList<>(); // Temas del libro tal como vienen de Gutendex
 
     // Métodos getter y setter para los atributos
 
@@ -40,6 +72,14 @@ public class Book {
         this.id = id;
     }
 
+    public Long getGutendexId() {
+        return gutendexId;
+    }
+
+    public void setGutendexId(Long gutendexId) {
+        this.gutendexId = gutendexId;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -80,6 +120,14 @@ public class Book {
         this.genre = genre;
     }
 
+    public List<String> getGenres() {
+        return genres;
+    }
+
+    public void setGenres(List<String> genres) {
+        this.genres = genres;
+    }
+
     public Long getSearchCount() {
         return searchCount;
     }
@@ -95,4 +143,37 @@ public class Book {
     public void setLanguages(List<String> languages) {
         this.languages = languages;
     }
+
+    public short[] getLanguageIds() {
+        return languageIds;
+    }
+
+    public void setLanguageIds(short[] languageIds) {
+        this.languageIds = languageIds != null ? languageIds : new short[0];
+        languageSet = null;
+    }
+
+    // Método para saber si el libro está en todos los idiomas de un conjunto de bits, sin recorrer listas
+    public boolean hasAllLanguages(BitSet required) {
+        if (languageSet == null) {
+            BitSet bits = new BitSet();
+            if (languageIds != null) { // Hibernate asigna el campo directamente al cargar el libro
+                for (short id : languageIds) {
+                    bits.set(id);
+                }
+            }
+            languageSet = bits;
+        }
+        BitSet missing = (BitSet) required.clone();
+        missing.andNot(languageSet);
+        return missing.isEmpty();
+    }
+
+    public List<String> getSubjects() {
+        return subjects;
+    }
+
+    public void setSubjects(List<String> subjects) {
+        this.subjects = subjects;
+    }
 }
@@ -0,0 +1,61 @@
+package com.desafio.literalura.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "import_checkpoints") // Progreso de las importaciones masivas para poder reanudarlas
+public class ImportCheckpoint {
+
+    @Id
+    private String name; // Identificador de la importación (por ejemplo, "catalog")
+
+    @Column(length = 2048)
+    private String nextUrl; // Página por la que continuar; null cuando la importación terminó
+
+    private Integer pagesCompleted; // Páginas importadas hasta ahora
+    private Long booksImported; // Libros importados hasta ahora
+    private LocalDateTime updatedAt; // Momento en que se completó la última página
+
+    // Métodos getter y setter para los atributos
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getNextUrl() {
+        return nextUrl;
+    }
+
+    public void setNextUrl(String nextUrl) {
+        this.nextUrl = nextUrl;
+    }
+
+    public Integer getPagesCompleted() {
+        return pagesCompleted;
+    }
+
+    public void setPagesCompleted(Integer pagesCompleted) {
+        this.pagesCompleted = pagesCompleted;
+    }
+
+    public Long getBooksImported() {
+        return booksImported;
+    }
+
+    public void setBooksImported(Long booksImported) {
+        this.booksImported = booksImported;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
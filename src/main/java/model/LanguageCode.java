@@ -0,0 +1,34 @@
+package com.desafio.literalura.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "language_codes") // Diccionario de idiomas: los libros guardan el número de cada código, no el texto
+public class LanguageCode {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "language_codes_seq")
+    @SequenceGenerator(name = "language_codes_seq", sequenceName = "language_codes_seq", allocationSize = 1)
+    private Short id; // Número que se guarda en books.language_ids (smallint)
+
+    @Column(unique = true, nullable = false, length = 16)
+    private String code; // Código del idioma tal como lo usa Gutendex (en, es, fr...)
+
+    // Métodos getter y setter para los atributos
+
+    public Short getId() {
+        return id;
+    }
+
+    public void setId(Short id) {
+        this.id = id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+}
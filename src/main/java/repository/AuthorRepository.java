@@ -1,12 +1,34 @@
 package com.desafio.literalura.repository;
 
 import com.desafio.literalura.model.Author;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AuthorRepository extends JpaRepository<Author, Long> {
     Optional<Author> findByName(String name);
-}
\ No newline at end of file
+
+    // Autores cuya vida se solapa con el intervalo [from, to]; usa el índice sobre (birth_year, death_year)
+    @Query("SELECT a FROM Author a WHERE (a.birthYear IS NULL OR a.birthYear <= :to)"
+            + " AND (a.deathYear IS NULL OR a.deathYear >= :from) ORDER BY a.birthYear, a.id")
+    Page<Author> findAliveBetween(@Param("from") int from, @Param("to") int to, Pageable pageable);
+
+    // Página por rango de ID: los autores siguientes al último ID visto, sin OFFSET
+    List<Author> findByIdGreaterThanOrderById(Long afterId, Limit limit);
+
+    // Todos los autores, leídos con un cursor del servidor; el Stream debe consumirse dentro de una transacción
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + BookRepository.STREAM_FETCH_SIZE))
+    Stream<Author> streamAllByOrderById();
+}
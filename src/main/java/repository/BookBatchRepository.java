@@ -0,0 +1,181 @@
+package com.desafio.literalura.repository;
+
+import com.desafio.literalura.model.Author;
+import com.desafio.literalura.model.Book;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Timed("literalura.repository") // Las consultas de los repositorios de Spring Data se miden solas (spring.data.repository.invocations)
+@Repository // Escrituras de una página completa de libros con unas pocas sentencias SQL en lugar de varias por libro
+public class BookBatchRepository {
+
+    private static final int BOOK_COLUMNS = 11; // Columnas de books que escribe upsertPage
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LanguageDictionary languageDictionary; // Idiomas como números en books.language_ids
+
+    // Método para insertar o actualizar una página de libros cuyos autores ya se resolvieron (nombre -> ID);
+    // devuelve los IDs sin repetir en el orden de la página. Los libros se identifican por su ID de Gutendex
+    // (índice único uk_books_gutendex_id); solo los que no lo tienen se comparan por título y autor
+    @Transactional
+    public List<Long> upsertPage(List<Book> books, Map<String, Long> authorIds) {
+
+        // Quitar los libros repetidos dentro de la página (mismo ID de Gutendex, o mismo título y autor si no tienen)
+        Map<String, Book> uniqueBooks = new LinkedHashMap<>();
+        for (Book book : books) {
+            uniqueBooks.putIfAbsent(bookKey(book, authorIds), book);
+        }
+
+        // Buscar con una consulta por clave los libros que ya existen
+        Map<String, Long> existingIds = new HashMap<>();
+        Long[] gutendexIds = uniqueBooks.values().stream()
+                .map(Book::getGutendexId)
+                .filter(Objects::nonNull)
+                .toArray(Long[]::new);
+        if (gutendexIds.length > 0) {
+            jdbcTemplate.query("SELECT id, gutendex_id FROM books WHERE gutendex_id = ANY(?)",
+                    rs -> {
+                        existingIds.put(gutendexKey(rs.getLong("gutendex_id")), rs.getLong("id"));
+                    },
+                    (Object) gutendexIds);
+        }
+        String[] titles = uniqueBooks.values().stream()
+                .filter(book -> book.getGutendexId() == null)
+                .map(Book::getTitle)
+                .distinct()
+                .toArray(String[]::new);
+        if (titles.length > 0) {
+            jdbcTemplate.query("SELECT id, title, author_id FROM books WHERE title = ANY(?) AND gutendex_id IS NULL",
+                    rs -> {
+                        long authorId = rs.getLong("author_id");
+                        existingIds.putIfAbsent(titleKey(rs.getString("title"), rs.wasNull() ? null : authorId), rs.getLong("id"));
+                    },
+                    (Object) titles);
+        }
+
+        // Los libros nuevos reciben IDs de la secuencia; los existentes conservan el suyo
+        int newBooks = (int) uniqueBooks.keySet().stream().filter(key -> !existingIds.containsKey(key)).count();
+        Deque<Long> freeIds = allocateIds("books_seq", Book.ID_ALLOCATION_SIZE, newBooks);
+        Map<String, Long> ids = new LinkedHashMap<>();
+        List<Object> keyedParams = new ArrayList<>();
+        List<Object> unkeyedParams = new ArrayList<>();
+        for (Map.Entry<String, Book> entry : uniqueBooks.entrySet()) {
+            Book book = entry.getValue();
+            Long id = existingIds.containsKey(entry.getKey()) ? existingIds.get(entry.getKey()) : freeIds.pop();
+            ids.put(entry.getKey(), id);
+            (book.getGutendexId() != null ? keyedParams : unkeyedParams).addAll(Arrays.asList(id, book.getGutendexId(),
+                    book.getTitle(), authorIdOf(book, authorIds), book.getDownloadCount(), book.getYearWritten(), book.getGenre(),
+                    book.getSearchCount() != null ? book.getSearchCount() : 0L, toArray(book.getSubjects()),
+                    toArray(book.getGenres()), languageDictionary.encode(book.getLanguages())));
+        }
+
+        // Una sola sentencia para insertar los nuevos y actualizar los existentes; los idiomas van en la misma fila.
+        // Si otro proceso guardó el mismo libro entre medias, ON CONFLICT actualiza la fila ganadora y devuelve su ID
+        if (!keyedParams.isEmpty()) {
+            jdbcTemplate.query(upsertSql(keyedParams.size() / BOOK_COLUMNS, "gutendex_id") + " RETURNING id, gutendex_id",
+                    rs -> {
+                        ids.put(gutendexKey(rs.getLong("gutendex_id")), rs.getLong("id"));
+                    },
+                    keyedParams.toArray());
+        }
+        if (!unkeyedParams.isEmpty()) {
+            jdbcTemplate.update(upsertSql(unkeyedParams.size() / BOOK_COLUMNS, "id"), unkeyedParams.toArray());
+        }
+        return new ArrayList<>(ids.values());
+    }
+
+    private String upsertSql(int rows, String conflictColumn) {
+        return "INSERT INTO books (id, gutendex_id, title, author_id, download_count, year_written, genre, search_count,"
+                + " subjects, genres, language_ids) VALUES " + valuesPlaceholders(rows, BOOK_COLUMNS)
+                + " ON CONFLICT (" + conflictColumn + ") DO UPDATE SET title = EXCLUDED.title, author_id = EXCLUDED.author_id,"
+                + " download_count = EXCLUDED.download_count, year_written = EXCLUDED.year_written, genre = EXCLUDED.genre,"
+                + " subjects = EXCLUDED.subjects, genres = EXCLUDED.genres, language_ids = EXCLUDED.language_ids";
+    }
+
+    // Método para resolver autores por nombre: una consulta IN y, si faltan, una inserción múltiple
+    @Transactional
+    public Map<String, Long> upsertAuthors(Collection<Author> authorList) {
+        Map<String, Author> authors = new LinkedHashMap<>();
+        authorList.forEach(author -> authors.putIfAbsent(author.getName(), author));
+        Map<String, Long> ids = new HashMap<>();
+        if (authors.isEmpty()) {
+            return ids;
+        }
+        jdbcTemplate.query("SELECT id, name FROM authors WHERE name = ANY(?)",
+                rs -> {
+                    ids.put(rs.getString("name"), rs.getLong("id"));
+                },
+                (Object) authors.keySet().toArray(String[]::new));
+
+        List<Author> missing = authors.values().stream()
+                .filter(author -> !ids.containsKey(author.getName()))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            Deque<Long> freeIds = allocateIds("authors_seq", Author.ID_ALLOCATION_SIZE, missing.size());
+            List<Object> params = new ArrayList<>();
+            for (Author author : missing) {
+                params.addAll(Arrays.asList(freeIds.pop(), author.getName(), author.getBirthYear(), author.getDeathYear()));
+            }
+            // Si otro proceso creó el autor entre medias, ON CONFLICT devuelve la fila ganadora
+            jdbcTemplate.query("INSERT INTO authors (id, name, birth_year, death_year) VALUES "
+                            + valuesPlaceholders(missing.size(), 4)
+                            + " ON CONFLICT (name) DO UPDATE SET name = EXCLUDED.name RETURNING id, name",
+                    rs -> {
+                        ids.put(rs.getString("name"), rs.getLong("id"));
+                    },
+                    params.toArray());
+        }
+        return ids;
+    }
+
+    // Método para reservar IDs respetando los bloques del optimizador "pooled" de Hibernate:
+    // cada valor de la secuencia es el extremo superior de un bloque de allocationSize IDs
+    private Deque<Long> allocateIds(String sequence, int allocationSize, int count) {
+        Deque<Long> ids = new ArrayDeque<>();
+        while (ids.size() < count) {
+            // El primer valor de una secuencia nueva (1) solo aporta un ID, por eso se repite hasta tener suficientes
+            int blocks = (count - ids.size() + allocationSize - 1) / allocationSize;
+            for (Long hi : jdbcTemplate.queryForList("SELECT nextval('" + sequence + "') FROM generate_series(1, ?)", Long.class, blocks)) {
+                for (long id = Math.max(1, hi - allocationSize + 1); id <= hi; id++) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    // Método para generar "(?, ?), (?, ?), ..." para una inserción de varias filas
+    private String valuesPlaceholders(int rows, int columns) {
+        String row = "(" + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+        return String.join(", ", Collections.nCopies(rows, row));
+    }
+
+    private String[] toArray(List<String> values) {
+        return values != null ? values.toArray(String[]::new) : new String[0];
+    }
+
+    private Long authorIdOf(Book book, Map<String, Long> authorIds) {
+        return book.getAuthor() != null ? authorIds.get(book.getAuthor().getName()) : null;
+    }
+
+    private String bookKey(Book book, Map<String, Long> authorIds) {
+        return book.getGutendexId() != null ? gutendexKey(book.getGutendexId()) : titleKey(book.getTitle(), authorIdOf(book, authorIds));
+    }
+
+    private String gutendexKey(long gutendexId) {
+        return "#" + gutendexId;
+    }
+
+    private String titleKey(String title, Long authorId) {
+        return title + "\u0000" + authorId;
+    }
+}
@@ -0,0 +1,31 @@
+package com.desafio.literalura.repository;
+
+import com.desafio.literalura.model.Book;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+// Traduce entre los códigos de idioma de un libro y los números que se guardan en books.language_ids.
+// Hibernate obtiene el listener de Spring mientras arranca; el diccionario se inyecta con @Lazy porque
+// a su vez necesita que Hibernate haya terminado de crear las tablas.
+@Component
+public class BookLanguageListener {
+
+    @Autowired
+    @Lazy
+    private LanguageDictionary languageDictionary;
+
+    @PostLoad
+    void decode(Book book) {
+        book.setLanguages(languageDictionary.decode(book.getLanguageIds()));
+    }
+
+    @PrePersist
+    @PreUpdate
+    void encode(Book book) {
+        book.setLanguageIds(languageDictionary.encode(book.getLanguages()));
+    }
+}
@@ -1,17 +1,60 @@
 package com.desafio.literalura.repository;
 
 import com.desafio.literalura.model.Book;
-import com.desafio.literalura.model.Author;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
+    int STREAM_FETCH_SIZE = 500; // Filas que el cursor del servidor entrega por viaje al recorrer toda la tabla
+
+    // Los listados cargan el autor en la misma consulta (LEFT JOIN); los idiomas ya vienen en la fila del libro.
+    // Página por rango de ID: los libros siguientes al último ID visto, sin OFFSET (el coste no crece con la página)
+    @EntityGraph(attributePaths = "author")
+    List<Book> findByIdGreaterThanOrderById(Long afterId, Limit limit);
+
+    // Todos los libros con su autor, leídos con un cursor del servidor; el Stream debe consumirse dentro de una transacción
+    @EntityGraph(attributePaths = "author")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    Stream<Book> streamAllByOrderById();
+
+    @EntityGraph(attributePaths = "author")
     List<Book> findAllByOrderBySearchCountDesc(Pageable pageable);
+
+    @EntityGraph(attributePaths = "author")
     List<Book> findByGenreIgnoreCase(String genre);
-    List<Book> findByTitleAndAuthor(String title, Author author);
-    List<Book> findByLanguagesContaining(String language);
+
+    // Solo ID y contador de búsquedas, sin cargar entidades (arranque del ranking de más buscados)
+    @Query("SELECT new com.desafio.literalura.repository.BookSearchCount(b.id, b.searchCount) FROM Book b"
+            + " WHERE b.searchCount > :minimum ORDER BY b.searchCount DESC")
+    List<BookSearchCount> findSearchCountsGreaterThan(@Param("minimum") Long minimum, Pageable pageable);
+
+    @EntityGraph(attributePaths = "author") // Libro y autor en una sola consulta; los idiomas viajan en la misma fila
+    List<Book> findWithAuthorByIdIn(Collection<Long> ids);
+
+    // IDs de los libros disponibles en todos los idiomas pedidos (números del diccionario), los más descargados primero;
+    // el operador @> sobre language_ids se resuelve con el índice GIN idx_books_language_ids
+    @Query(value = "SELECT id FROM books WHERE language_ids @> CAST(:languageIds AS smallint[])"
+            + " ORDER BY download_count DESC NULLS LAST, id",
+            countQuery = "SELECT COUNT(*) FROM books WHERE language_ids @> CAST(:languageIds AS smallint[])",
+            nativeQuery = true)
+    Page<Long> findIdsByAllLanguageIds(@Param("languageIds") short[] languageIds, Pageable pageable);
+
+    // Cantidad de libros guardados por idioma con un único GROUP BY (cada fila: idioma, cantidad)
+    @Query(value = "SELECT c.code, COUNT(*) FROM books b CROSS JOIN LATERAL unnest(b.language_ids) AS l(id)"
+            + " JOIN language_codes c ON c.id = l.id GROUP BY c.code", nativeQuery = true)
+    List<Object[]> countBooksByLanguage();
 }
\ No newline at end of file
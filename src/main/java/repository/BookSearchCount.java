@@ -0,0 +1,5 @@
+package com.desafio.literalura.repository;
+
+// Proyección de un libro con solo su ID y su contador de búsquedas
+public record BookSearchCount(Long id, Long searchCount) {
+}
@@ -0,0 +1,9 @@
+package com.desafio.literalura.repository;
+
+import com.desafio.literalura.model.ImportCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportCheckpointRepository extends JpaRepository<ImportCheckpoint, String> {
+}
@@ -0,0 +1,157 @@
+package com.desafio.literalura.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Diccionario en memoria de la tabla language_codes: código de idioma <-> número (smallint).
+// Los libros guardan sus idiomas como un arreglo de estos números, ordenado y sin repetidos,
+// y en memoria como un conjunto de bits donde cada bit es uno de estos números.
+@Repository
+public class LanguageDictionary {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory; // Garantiza que Hibernate ya creó la tabla y la secuencia
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate registerTransaction; // Los códigos nuevos se confirman aparte del libro que los trae
+
+    private volatile Map<String, Short> ids = Map.of(); // Código -> número
+    private volatile String[] codes = new String[0]; // Número -> código (posición = número)
+    // Serializa las recargas y las altas de códigos. Es un ReentrantLock y no synchronized porque adentro se consulta
+    // la base de datos, y con hilos virtuales un synchronized dejaría el hilo del sistema ocupado mientras tanto
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @PostConstruct
+    void init() {
+        registerTransaction = new TransactionTemplate(transactionManager);
+        registerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        reload();
+    }
+
+    // Método para codificar una lista de idiomas; los códigos que no están en el diccionario se agregan
+    public short[] encode(Collection<String> languages) {
+        Set<String> normalized = normalize(languages);
+        if (!ids.keySet().containsAll(normalized)) {
+            register(normalized);
+        }
+        return toIds(normalized);
+    }
+
+    // Método para codificar idiomas sin agregar nada al diccionario; null si alguno no se conoce
+    // (ningún libro guardado puede estar en un idioma que no está en el diccionario)
+    public short[] find(Collection<String> languages) {
+        Set<String> normalized = normalize(languages);
+        return ids.keySet().containsAll(normalized) ? toIds(normalized) : null;
+    }
+
+    // Método para obtener los idiomas pedidos como conjunto de bits (ver Book.hasAllLanguages); null si alguno no se conoce
+    public BitSet findBits(Collection<String> languages) {
+        short[] found = find(languages);
+        if (found == null) {
+            return null;
+        }
+        BitSet bits = new BitSet();
+        for (short id : found) {
+            bits.set(id);
+        }
+        return bits;
+    }
+
+    // Método para obtener los códigos de idioma de un arreglo de números, en el mismo orden
+    public List<String> decode(short[] languageIds) {
+        if (languageIds == null || languageIds.length == 0) {
+            return new ArrayList<>();
+        }
+        String[] current = codes;
+        List<String> result = new ArrayList<>(languageIds.length);
+        for (short id : languageIds) {
+            if (id >= current.length || current[id] == null) {
+                reload(); // Otro proceso agregó el código después de la última carga
+                current = codes;
+            }
+            if (id < current.length && current[id] != null) {
+                result.add(current[id]);
+            }
+        }
+        return result;
+    }
+
+    // Método para volver a leer el diccionario completo; es una tabla de decenas de filas
+    public void reload() {
+        lock.lock();
+        try {
+            Map<String, Short> loadedIds = new HashMap<>();
+            List<String> loadedCodes = new ArrayList<>();
+            jdbcTemplate.query("SELECT id, code FROM language_codes", rs -> {
+                short id = rs.getShort("id");
+                String code = rs.getString("code");
+                loadedIds.put(code, id);
+                while (loadedCodes.size() <= id) {
+                    loadedCodes.add(null);
+                }
+                loadedCodes.set(id, code);
+            });
+            codes = loadedCodes.toArray(String[]::new);
+            ids = Map.copyOf(loadedIds);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void register(Set<String> languages) {
+        lock.lock();
+        try {
+            List<Object[]> missing = languages.stream()
+                    .filter(code -> !ids.containsKey(code))
+                    .map(code -> new Object[]{code})
+                    .toList();
+            if (missing.isEmpty()) {
+                return; // Otro hilo ya los agregó
+            }
+            // Si otro proceso agregó el mismo código entre medias, ON CONFLICT lo deja como está
+            registerTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "INSERT INTO language_codes (id, code) VALUES (nextval('language_codes_seq'), ?) ON CONFLICT (code) DO NOTHING",
+                    missing));
+            reload();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private short[] toIds(Set<String> languages) {
+        Map<String, Short> current = ids;
+        short[] result = new short[languages.size()];
+        int i = 0;
+        for (String code : languages) {
+            result[i++] = current.get(code);
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static Set<String> normalize(Collection<String> languages) {
+        Set<String> result = new LinkedHashSet<>();
+        if (languages != null) {
+            for (String code : languages) {
+                if (code != null && !code.isBlank()) {
+                    result.add(code.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return result;
+    }
+}
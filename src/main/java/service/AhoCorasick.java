@@ -0,0 +1,123 @@
+package com.desafio.literalura.service;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+// Autómata de Aho-Corasick: busca todos los patrones de un diccionario en una sola pasada por el texto,
+// así el coste depende del largo del texto y no de cuántos patrones haya. Es inmutable una vez construido.
+// Los patrones y el texto se comparan en minúsculas.
+public final class AhoCorasick<V> {
+
+    private final List<Map<Character, Integer>> children = new ArrayList<>(); // Transiciones de cada nodo del trie
+    private final int[] terminal; // Patrón que termina exactamente en cada nodo, -1 si ninguno
+    private final int[] fail; // Nodo del sufijo más largo que también es prefijo de algún patrón
+    private final int[] longest; // Patrón más largo que termina en cada nodo (o en alguno de sus sufijos), -1 si ninguno
+    private final int[] next; // Siguiente nodo con patrón siguiendo los enlaces de fallo, para recorrer todas las coincidencias
+    private final List<String> patterns = new ArrayList<>();
+    private final List<V> values = new ArrayList<>();
+
+    public AhoCorasick(Map<String, V> dictionary) {
+        children.add(new HashMap<>());
+        List<Integer> ends = new ArrayList<>();
+        ends.add(-1);
+        for (Map.Entry<String, V> entry : dictionary.entrySet()) {
+            String pattern = entry.getKey().toLowerCase(Locale.ROOT);
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            int node = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                Integer child = children.get(node).get(pattern.charAt(i));
+                if (child == null) {
+                    child = children.size();
+                    children.get(node).put(pattern.charAt(i), child);
+                    children.add(new HashMap<>());
+                    ends.add(-1);
+                }
+                node = child;
+            }
+            if (ends.get(node) < 0) {
+                ends.set(node, patterns.size());
+                patterns.add(pattern);
+                values.add(entry.getValue());
+            }
+        }
+
+        // Enlaces de fallo por niveles (BFS): cada nodo hereda las coincidencias de su sufijo
+        int size = children.size();
+        terminal = ends.stream().mapToInt(Integer::intValue).toArray();
+        fail = new int[size];
+        longest = new int[size];
+        next = new int[size];
+        longest[0] = -1;
+        next[0] = -1;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : children.get(0).values()) {
+            fail[child] = 0;
+            longest[child] = terminal[child];
+            next[child] = -1;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (Map.Entry<Character, Integer> edge : children.get(node).entrySet()) {
+                int child = edge.getValue();
+                int f = fail[node];
+                while (f > 0 && !children.get(f).containsKey(edge.getKey())) {
+                    f = fail[f];
+                }
+                Integer target = children.get(f).get(edge.getKey());
+                fail[child] = target != null ? target : 0;
+                // El patrón propio del nodo siempre es más largo que cualquiera de sus sufijos
+                longest[child] = terminal[child] >= 0 ? terminal[child] : longest[fail[child]];
+                next[child] = terminal[fail[child]] >= 0 ? fail[child] : next[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    // Método para obtener el valor del patrón más largo que aparece en el texto (el primero si hay empate), o null
+    public V longestMatch(String text) {
+        int best = -1;
+        int node = 0;
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            node = step(node, lower.charAt(i));
+            int candidate = longest[node];
+            if (candidate >= 0 && (best < 0 || patterns.get(candidate).length() > patterns.get(best).length())) {
+                best = candidate;
+            }
+        }
+        return best >= 0 ? values.get(best) : null;
+    }
+
+    // Método para recorrer todas las coincidencias del texto: recibe la posición donde empieza cada una y su valor
+    public void forEachMatch(String text, BiConsumer<Integer, V> consumer) {
+        int node = 0;
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            node = step(node, lower.charAt(i));
+            for (int match = terminal[node] >= 0 ? node : next[node]; match > 0; match = next[match]) {
+                int pattern = terminal[match];
+                consumer.accept(i - patterns.get(pattern).length() + 1, values.get(pattern));
+            }
+        }
+    }
+
+    public int size() {
+        return patterns.size();
+    }
+
+    private int step(int node, char c) {
+        while (true) {
+            Integer child = children.get(node).get(c);
+            if (child != null) {
+                return child;
+            }
+            if (node == 0) {
+                return 0;
+            }
+            node = fail[node];
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.desafio.literalura.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+@Component // Caché concurrente nombre de autor -> ID para no consultar la tabla "authors" en cada libro
+public class AuthorIdentityCache {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory; // Garantiza que la tabla ya existe al precargar la caché
+
+    @Value("${literalura.authors.cache-size:100000}")
+    private int maxSize; // Número máximo de autores en memoria
+
+    private Cache<String, Long> ids;
+
+    // Autores que algún hilo está buscando o creando en este momento
+    private final Map<String, CompletableFuture<Long>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void warmUp() {
+        ids = Caffeine.newBuilder().maximumSize(maxSize).build();
+        // Precargar los autores más recientes, que son los que más se repiten al importar
+        jdbcTemplate.query("SELECT id, name FROM authors ORDER BY id DESC LIMIT ?",
+                rs -> {
+                    ids.put(rs.getString("name"), rs.getLong("id"));
+                },
+                maxSize);
+        System.out.println("Caché de autores precargada: " + ids.estimatedSize() + " autores");
+    }
+
+    // Método para obtener los IDs de varios autores. Los que no están en memoria se resuelven con una sola
+    // llamada a loader; si otro hilo ya está resolviendo alguno de ellos, se espera a su resultado en lugar
+    // de repetir la consulta o la inserción. Se llama antes de abrir la transacción de escritura de los libros y
+    // loader confirma los autores en su propia transacción corta, así los IDs que se publican ya son visibles para
+    // todas las transacciones. Dentro de una transacción no se podría esperar a otro hilo sin arriesgar un bloqueo
+    // mutuo, por eso no se admite
+    public Map<String, Long> resolve(Collection<String> names, Function<Set<String>, Map<String, Long>> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Los autores se resuelven antes de abrir la transacción de escritura");
+        }
+        Map<String, Long> result = new HashMap<>(ids.getAllPresent(names));
+        Map<String, CompletableFuture<Long>> owned = new HashMap<>();
+        Map<String, CompletableFuture<Long>> waiting = new HashMap<>();
+        for (String name : names) {
+            if (result.containsKey(name) || owned.containsKey(name) || waiting.containsKey(name)) {
+                continue;
+            }
+            CompletableFuture<Long> future = new CompletableFuture<>();
+            CompletableFuture<Long> existing = inFlight.putIfAbsent(name, future);
+            if (existing == null) {
+                owned.put(name, future);
+            } else {
+                waiting.put(name, existing);
+            }
+        }
+
+        if (!owned.isEmpty()) {
+            Map<String, Long> loaded;
+            try {
+                loaded = loader.apply(owned.keySet());
+            } catch (RuntimeException e) {
+                fail(owned, e);
+                throw e;
+            }
+            result.putAll(loaded);
+            publish(loaded, owned);
+        }
+        waiting.forEach((name, future) -> result.put(name, future.join()));
+        return result;
+    }
+
+    // Método para guardar los IDs en memoria y avisar a quienes esperan
+    private void publish(Map<String, Long> loaded, Map<String, CompletableFuture<Long>> owned) {
+        ids.putAll(loaded);
+        owned.forEach((name, future) -> {
+            inFlight.remove(name, future);
+            future.complete(loaded.get(name));
+        });
+    }
+
+    private void fail(Map<String, CompletableFuture<Long>> owned, RuntimeException e) {
+        owned.forEach((name, future) -> {
+            inFlight.remove(name, future);
+            future.completeExceptionally(e);
+        });
+    }
+}
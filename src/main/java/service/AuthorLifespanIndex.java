@@ -0,0 +1,249 @@
+package com.desafio.literalura.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Índice en memoria de los años de vida de los autores (árbol de intervalos centrado).
+// Responde "vivos en el año X" y "vivos entre X e Y" en O(log n + k) sin leer la tabla completa.
+// Un año de nacimiento o fallecimiento desconocido se trata como abierto, igual que en la consulta SQL.
+@Component
+public class AuthorLifespanIndex {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory; // Garantiza que la tabla ya existe antes de leerla
+
+    private volatile Snapshot snapshot; // Índice vigente; se reemplaza completo en cada reconstrucción
+    private volatile boolean stale = true; // Hay autores nuevos que el índice todavía no incluye
+    private final ReentrantLock rebuildLock = new ReentrantLock(); // Una reconstrucción a la vez (lee toda la tabla)
+
+    // Método para marcar el índice como desactualizado (se reconstruye en la siguiente consulta). Dentro de una
+    // transacción se marca al confirmarse: antes, una reconstrucción no vería los autores nuevos y aun así
+    // quitaría la marca, dejándolos fuera hasta la reconstrucción periódica
+    public void markStale() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stale = true;
+                }
+            });
+        } else {
+            stale = true;
+        }
+    }
+
+    // Método para obtener, ordenados por año de nacimiento e ID, los IDs de los autores vivos en algún año de [from, to]
+    public List<Long> findAliveBetween(int from, int to) {
+        if (stale || snapshot == null) {
+            rebuild();
+        }
+        return snapshot.query(from, to);
+    }
+
+    // Reconstrucción periódica para incluir cambios hechos por otras instancias
+    @Scheduled(fixedDelayString = "${literalura.authors.lifespan-index.refresh-interval:PT5M}",
+            initialDelayString = "${literalura.authors.lifespan-index.refresh-interval:PT5M}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            stale = false;
+            List<long[]> rows = new ArrayList<>();
+            jdbcTemplate.query("SELECT id, birth_year, death_year FROM authors", rs -> {
+                long[] row = row(rs.getLong("id"), rs.getObject("birth_year", Integer.class), rs.getObject("death_year", Integer.class));
+                if (row != null) {
+                    rows.add(row);
+                }
+            });
+            snapshot = new Snapshot(rows);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Fila del índice: ID, nacimiento y fallecimiento (abiertos si se desconocen) y si falta el nacimiento;
+    // null si las fechas son incoherentes y el autor no puede estar vivo en ningún año
+    static long[] row(long id, Integer birth, Integer death) {
+        if (birth != null && death != null && death < birth) {
+            return null;
+        }
+        return new long[]{id,
+                birth == null ? Integer.MIN_VALUE : birth,
+                death == null ? Integer.MAX_VALUE : death,
+                birth == null ? 1 : 0};
+    }
+
+    // Estructura inmutable construida a partir de una lectura de la tabla
+    static final class Snapshot {
+
+        private final long[] ids;
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] rank; // Posición de cada autor en el orden (nacimiento, nulos al final; ID)
+        private final int[] byStart; // Índices ordenados por año de nacimiento
+        private final int[] sortedStarts; // Años de nacimiento en el mismo orden, para la búsqueda binaria
+        private final Node root;
+
+        Snapshot(List<long[]> rows) {
+            int n = rows.size();
+            ids = new long[n];
+            starts = new int[n];
+            ends = new int[n];
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = rows.get(i)[0];
+                starts[i] = (int) rows.get(i)[1];
+                ends[i] = (int) rows.get(i)[2];
+                order[i] = i;
+            }
+            // Mismo orden que la consulta SQL: año de nacimiento ascendente con los desconocidos al final, luego ID
+            Arrays.sort(order, (a, b) -> {
+                int c = Long.compare(rows.get(a)[3], rows.get(b)[3]);
+                if (c == 0) {
+                    c = Integer.compare(starts[a], starts[b]);
+                }
+                return c != 0 ? c : Long.compare(ids[a], ids[b]);
+            });
+            rank = new int[n];
+            for (int r = 0; r < n; r++) {
+                rank[order[r]] = r;
+            }
+            byStart = sortByKey(allIndices(n), starts, true);
+            sortedStarts = new int[n];
+            for (int i = 0; i < n; i++) {
+                sortedStarts[i] = starts[byStart[i]];
+            }
+            root = build(allIndices(n));
+        }
+
+        List<Long> query(int from, int to) {
+            List<Integer> found = new ArrayList<>();
+            stab(root, from, found);
+            // Los que nacieron dentro de (from, to] no contienen a "from" y no pueden estar repetidos
+            for (int i = upperBound(sortedStarts, from); i < sortedStarts.length && sortedStarts[i] <= to; i++) {
+                found.add(byStart[i]);
+            }
+            found.sort((a, b) -> Integer.compare(rank[a], rank[b]));
+            List<Long> result = new ArrayList<>(found.size());
+            found.forEach(i -> result.add(ids[i]));
+            return result;
+        }
+
+        // Búsqueda de los intervalos que contienen x: se descarta una rama del árbol en cada nivel
+        private void stab(Node node, int x, List<Integer> out) {
+            while (node != null) {
+                if (x < node.center) {
+                    for (int i : node.byStart) {
+                        if (starts[i] > x) {
+                            break;
+                        }
+                        out.add(i);
+                    }
+                    node = node.left;
+                } else if (x > node.center) {
+                    for (int i : node.byEnd) {
+                        if (ends[i] < x) {
+                            break;
+                        }
+                        out.add(i);
+                    }
+                    node = node.right;
+                } else {
+                    for (int i : node.byStart) {
+                        out.add(i);
+                    }
+                    return;
+                }
+            }
+        }
+
+        private Node build(int[] indices) {
+            if (indices.length == 0) {
+                return null;
+            }
+            int[] sorted = sortByKey(indices, starts, true);
+            int center = starts[sorted[sorted.length / 2]];
+            int leftCount = 0;
+            int rightCount = 0;
+            int midCount = 0;
+            for (int i : indices) {
+                if (ends[i] < center) {
+                    leftCount++;
+                } else if (starts[i] > center) {
+                    rightCount++;
+                } else {
+                    midCount++;
+                }
+            }
+            int[] left = new int[leftCount];
+            int[] right = new int[rightCount];
+            int[] mid = new int[midCount];
+            leftCount = rightCount = midCount = 0;
+            for (int i : indices) {
+                if (ends[i] < center) {
+                    left[leftCount++] = i;
+                } else if (starts[i] > center) {
+                    right[rightCount++] = i;
+                } else {
+                    mid[midCount++] = i;
+                }
+            }
+            Node node = new Node();
+            node.center = center;
+            node.byStart = sortByKey(mid, starts, true);
+            node.byEnd = sortByKey(mid, ends, false);
+            node.left = build(left);
+            node.right = build(right);
+            return node;
+        }
+
+        private static int[] sortByKey(int[] indices, int[] keys, boolean ascending) {
+            return Arrays.stream(indices)
+                    .boxed()
+                    .sorted((a, b) -> ascending ? Integer.compare(keys[a], keys[b]) : Integer.compare(keys[b], keys[a]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        private static int[] allIndices(int n) {
+            int[] indices = new int[n];
+            Arrays.setAll(indices, i -> i);
+            return indices;
+        }
+
+        // Primera posición cuyo valor es mayor que key
+        private static int upperBound(int[] values, int key) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] <= key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static final class Node {
+        int center; // Año que divide los intervalos de este nodo
+        int[] byStart; // Intervalos que contienen el centro, por nacimiento ascendente
+        int[] byEnd; // Los mismos, por fallecimiento descendente
+        Node left; // Intervalos que terminan antes del centro
+        Node right; // Intervalos que empiezan después del centro
+    }
+}
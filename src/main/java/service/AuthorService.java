@@ -4,13 +4,29 @@ import com.desafio.literalura.model.Author;
 import com.desafio.literalura.model.Book;
 import com.desafio.literalura.repository.AuthorRepository;
 import com.desafio.literalura.repository.BookRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+@Timed("literalura.service")
 @Service // Anotación que marca la clase como un servicio que gestiona la lógica de negocio
 public class AuthorService {
 
@@ -23,23 +39,63 @@ public class AuthorService {
     @Autowired
     private BookService bookService; // Servicio para gestionar operaciones relacionadas con libros
 
-    // Método para obtener todos los autores
+    @Autowired
+    private AuthorLifespanIndex authorLifespanIndex; // Índice en memoria de los años de vida
+
+    @PersistenceContext
+    private EntityManager entityManager; // Para soltar cada autor ya entregado al recorrer toda la tabla
+
+    @Value("${literalura.authors.lifespan-index.enabled:true}")
+    private boolean lifespanIndexEnabled; // Si es false, las consultas por año van directamente a la base de datos
+
+    // Método para obtener los autores de a un bloque, ordenados por ID: se pide el bloque siguiente al último ID recibido (0 para empezar)
     @Transactional(readOnly = true) // Anotación para indicar que este método no modificará la base de datos
-    public List<Author> getAllAuthors() {
-        return authorRepository.findAll(); // Retorna todos los autores de la base de datos
+    public List<Author> getAuthorsAfter(long afterId, int limit) {
+        return authorRepository.findByIdGreaterThanOrderById(afterId, Limit.of(limit));
     }
 
-    // Método para obtener autores que estaban vivos en un año específico
+    // Método para recorrer todos los autores en orden de ID con memoria constante (cursor y autores separados al entregarlos)
     @Transactional(readOnly = true)
-    public List<Author> getAuthorsAliveInYear(int year) {
-        return authorRepository.findAll().stream() // Obtiene todos los autores y filtra los vivos en ese año
-                .filter(author -> (author.getBirthYear() == null || author.getBirthYear() <= year) && // Autor nacido antes o en el año
-                        (author.getDeathYear() == null || author.getDeathYear() >= year)) // Autor fallecido después o en el año
-                .collect(Collectors.toList()); // Convierte el resultado en una lista
+    public long forEachAuthor(Consumer<Author> consumer) {
+        long count = 0;
+        try (Stream<Author> authors = authorRepository.streamAllByOrderById()) {
+            for (Iterator<Author> iterator = authors.iterator(); iterator.hasNext(); count++) {
+                Author author = iterator.next();
+                consumer.accept(author);
+                entityManager.detach(author);
+            }
+        }
+        return count;
+    }
+
+    // Método para obtener, por páginas, los autores que estaban vivos en un año específico
+    @Transactional(readOnly = true)
+    public Page<Author> getAuthorsAliveInYear(int year, int page, int size) {
+        return getAuthorsAliveBetween(year, year, page, size);
     }
 
-    // Método para obtener autores según el género literario de sus libros
+    // Método para obtener, por páginas, los autores que estuvieron vivos en algún año entre from y to
     @Transactional(readOnly = true)
+    public Page<Author> getAuthorsAliveBetween(int from, int to, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+        if (!lifespanIndexEnabled) {
+            return authorRepository.findAliveBetween(from, to, pageRequest); // Consulta por rango sobre el índice de la tabla
+        }
+        // El índice en memoria da los IDs ya ordenados; solo se cargan los autores de la página pedida
+        List<Long> ids = authorLifespanIndex.findAliveBetween(from, to);
+        int start = (int) Math.min(pageRequest.getOffset(), ids.size()); // El desplazamiento es long: no se trunca
+        List<Long> pageIds = ids.subList(start, Math.min(start + size, ids.size()));
+        Map<Long, Author> authors = authorRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Author::getId, Function.identity()));
+        List<Author> content = pageIds.stream()
+                .map(authors::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageRequest, ids.size());
+    }
+
+    // Método para obtener autores según el género literario de sus libros. Sin transacción de solo lectura:
+    // los libros de cada página se guardan antes de devolverlos (con sus autores ya cargados)
     public List<Author> getAuthorsByBookGenre(String genre) {
         List<Book> books = bookService.getBooksByGenre(genre); // Obtiene los libros del género especificado
         return books.stream()
@@ -48,4 +104,13 @@ public class AuthorService {
                 .distinct() // Elimina autores duplicados
                 .collect(Collectors.toList()); // Convierte el resultado en una lista
     }
+
+    // Versión asíncrona de getAuthorsByBookGenre
+    public CompletableFuture<List<Author>> getAuthorsByBookGenreAsync(String genre) {
+        return bookService.getBooksByGenreAsync(genre).thenApply(books -> books.stream()
+                .map(Book::getAuthor)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList()));
+    }
 }
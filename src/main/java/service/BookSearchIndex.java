@@ -0,0 +1,224 @@
+package com.desafio.literalura.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+// Índice invertido en memoria sobre el título, el autor y los temas de los libros guardados.
+// Permite responder búsquedas por texto sin llamar a Gutendex; los resultados se ordenan por relevancia
+// (dónde aparece cada palabra y qué tan rara es) y por número de descargas.
+@Component
+public class BookSearchIndex {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+
+    // Peso de una palabra según el campo donde aparece
+    private static final double TITLE_WEIGHT = 3.0;
+    private static final double AUTHOR_WEIGHT = 2.0;
+    private static final double SUBJECT_WEIGHT = 1.0;
+
+    private static final String SELECT_BOOKS = "SELECT b.id, b.title, b.download_count, b.subjects, a.name AS author_name"
+            + " FROM books b LEFT JOIN authors a ON a.id = b.author_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory; // Garantiza que la tabla ya existe antes de leerla
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock loadLock = new ReentrantLock(); // Una carga desde la base de datos a la vez
+    private Map<String, Set<Long>> postings = new HashMap<>(); // Palabra -> libros que la contienen en algún campo
+    private Map<Long, Document> documents = new HashMap<>(); // Libro -> palabras de cada campo
+    private volatile boolean loaded = false; // El índice se carga completo en la primera búsqueda
+
+    // Método para obtener los IDs de los libros que contienen todas las palabras de la consulta, del más relevante al menos
+    public List<Long> search(String query, int limit) {
+        return search(query, limit, Document::all);
+    }
+
+    // Igual que search, pero todas las palabras tienen que estar en el título
+    public List<Long> searchTitles(String query, int limit) {
+        return search(query, limit, Document::title);
+    }
+
+    // field elige las palabras del libro que tienen que contener todas las de la consulta
+    private List<Long> search(String query, int limit, Function<Document, Set<String>> field) {
+        if (!loaded) {
+            rebuild();
+        }
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            // Se recorre la lista de libros más corta y se comprueba el resto de palabras en cada documento
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String term : terms) {
+                Set<Long> ids = postings.get(term);
+                if (ids == null) {
+                    return Collections.emptyList();
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+            Map<Long, Double> scores = new HashMap<>();
+            for (Long id : lists.get(0)) {
+                Document document = documents.get(id);
+                if (document != null && field.apply(document).containsAll(terms)) {
+                    scores.put(id, score(document, terms));
+                }
+            }
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Método para volver a indexar unos libros después de guardarlos; si hay una transacción en curso,
+    // se espera a que se confirme para no indexar cambios que podrían deshacerse
+    public void refresh(Collection<Long> ids) {
+        if (ids.isEmpty() || !loaded) {
+            return; // Si el índice aún no se cargó, los libros entrarán en la carga completa
+        }
+        List<Long> pending = new ArrayList<>(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    load(pending);
+                }
+            });
+        } else {
+            load(pending);
+        }
+    }
+
+    // Reconstrucción periódica para incluir cambios hechos por otras instancias
+    @Scheduled(fixedDelayString = "${literalura.books.search-index.refresh-interval:PT10M}",
+            initialDelayString = "${literalura.books.search-index.refresh-interval:PT10M}")
+    public void rebuild() {
+        loadLock.lock();
+        try {
+            Map<String, Set<Long>> newPostings = new HashMap<>();
+            Map<Long, Document> newDocuments = new HashMap<>();
+            jdbcTemplate.query(SELECT_BOOKS, rs -> {
+                Document document = readDocument(rs);
+                newDocuments.put(document.id(), document);
+                addPostings(newPostings, document);
+            });
+            lock.writeLock().lock();
+            try {
+                postings = newPostings;
+                documents = newDocuments;
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            System.out.println("Índice de búsqueda cargado: " + newDocuments.size() + " libros");
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // Método para leer unos libros concretos y reemplazar sus entradas en el índice
+    private void load(List<Long> ids) {
+        loadLock.lock();
+        try {
+            List<Document> loadedDocuments = jdbcTemplate.query(SELECT_BOOKS + " WHERE b.id = ANY(?)",
+                    (rs, rowNum) -> readDocument(rs), (Object) ids.toArray(Long[]::new));
+            lock.writeLock().lock();
+            try {
+                for (Document document : loadedDocuments) {
+                    Document previous = documents.put(document.id(), document);
+                    if (previous != null) {
+                        for (String term : previous.all()) {
+                            Set<Long> list = postings.get(term);
+                            if (list != null && list.remove(previous.id()) && list.isEmpty()) {
+                                postings.remove(term);
+                            }
+                        }
+                    }
+                    addPostings(postings, document);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private Document readDocument(ResultSet rs) throws SQLException {
+        Set<String> subjectTerms = new HashSet<>();
+        Array subjects = rs.getArray("subjects");
+        if (subjects != null) {
+            for (Object subject : (Object[]) subjects.getArray()) {
+                subjectTerms.addAll(tokenize((String) subject));
+            }
+        }
+        Set<String> titleTerms = new HashSet<>(tokenize(rs.getString("title")));
+        Set<String> authorTerms = new HashSet<>(tokenize(rs.getString("author_name")));
+        Set<String> allTerms = new HashSet<>(titleTerms);
+        allTerms.addAll(authorTerms);
+        allTerms.addAll(subjectTerms);
+        return new Document(rs.getLong("id"), titleTerms, authorTerms, subjectTerms, allTerms, rs.getLong("download_count"));
+    }
+
+    private static void addPostings(Map<String, Set<Long>> postings, Document document) {
+        for (String term : document.all()) {
+            postings.computeIfAbsent(term, t -> new HashSet<>()).add(document.id());
+        }
+    }
+
+    // Cada palabra suma el peso de los campos donde aparece, multiplicado por su rareza (IDF);
+    // el total se multiplica por un factor que crece con el logaritmo de las descargas
+    private double score(Document document, Set<String> terms) {
+        double text = 0;
+        for (String term : terms) {
+            double idf = Math.log(1.0 + (double) documents.size() / postings.get(term).size());
+            double weight = (document.title().contains(term) ? TITLE_WEIGHT : 0)
+                    + (document.author().contains(term) ? AUTHOR_WEIGHT : 0)
+                    + (document.subjects().contains(term) ? SUBJECT_WEIGHT : 0);
+            text += weight * idf;
+        }
+        return text * (1.0 + Math.log1p(document.downloads()) / 10.0);
+    }
+
+    // Método para separar un texto en palabras en minúsculas y sin acentos
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        String plain = ACCENTS.matcher(Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)).replaceAll("");
+        return Arrays.stream(SEPARATORS.split(plain))
+                .filter(term -> !term.isEmpty())
+                .toList();
+    }
+
+    // Palabras de cada campo de un libro y de todos juntos
+    private record Document(Long id, Set<String> title, Set<String> author, Set<String> subjects, Set<String> all,
+                            long downloads) {
+    }
+}
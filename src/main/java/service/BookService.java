@@ -1,29 +1,49 @@
 package com.desafio.literalura.service;
 
+import com.desafio.literalura.client.GutendexClient;
+import com.desafio.literalura.client.GutendexPage;
+import com.desafio.literalura.client.GutendexPageIterator;
+import com.desafio.literalura.client.RequestPriority;
 import com.desafio.literalura.model.Book;
 import com.desafio.literalura.model.Author;
+import com.desafio.literalura.repository.BookBatchRepository;
 import com.desafio.literalura.repository.BookRepository;
 import com.desafio.literalura.repository.AuthorRepository;
+import com.desafio.literalura.repository.LanguageDictionary;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+@Timed("literalura.service")
 @Service // Marca la clase como un servicio de Spring para manejar la lógica de negocio
 public class BookService {
 
     @Autowired
-    private RestTemplate restTemplate; // Para hacer peticiones HTTP a la API externa
+    private GutendexClient gutendexClient; // Para hacer peticiones HTTP a la API externa
 
     @Autowired
-    private ObjectMapper objectMapper; // Para convertir respuestas JSON en objetos Java
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor taskExecutor; // Ejecutor para procesar las respuestas asíncronas fuera del reactor HTTP
 
     @Autowired
     private BookRepository bookRepository; // Repositorio para manejar la base de datos de libros
@@ -31,159 +51,307 @@ public class BookService {
     @Autowired
     private AuthorRepository authorRepository; // Repositorio para manejar la base de datos de autores
 
+    @Autowired
+    private BookBatchRepository bookBatchRepository; // Escrituras por página en lote
+
+    @Autowired
+    private AuthorIdentityCache authorIdentityCache; // IDs de autores ya conocidos
+
+    @Autowired
+    private AuthorLifespanIndex authorLifespanIndex; // Índice de años de vida que hay que refrescar al crear autores
+
+    @Autowired
+    private SearchCountAggregator searchCountAggregator; // Contadores de búsquedas pendientes de escribir
+
+    @Autowired
+    private SearchRankingService searchRankingService; // Ranking en memoria de los más buscados
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex; // Índice de texto de los libros ya guardados
+
+    @Autowired
+    private LanguageDictionary languageDictionary; // Códigos de idioma <-> números guardados en los libros
+
+    @Autowired
+    private PersistencePipeline persistencePipeline; // Escrituras cortas con turnos limitados
+
+    @PersistenceContext
+    private EntityManager entityManager; // Para soltar cada libro ya entregado al recorrer toda la tabla
+
     private static final String API_URL = "https://gutendex.com/books"; // URL base de la API externa
+    private static final int GUTENDEX_PAGE_SIZE = 32; // Libros por página de resultados de Gutendex
 
-    private Map<String, String> genreTranslationMap = new HashMap<>(); // Mapa para traducir géneros de inglés a español
-    private Map<String, String> titleTranslationMap = new HashMap<>(); // Mapa para traducir títulos de libros
+    @Value("${literalura.books.search-index.enabled:true}")
+    private boolean searchIndexEnabled; // Si es false, las búsquedas por título van siempre a la API
 
-    // Constructor que inicializa los mapas de traducción
-    public BookService() {
-        initializeTranslationMaps();
-    }
+    @Value("${gutendex.genre.max-results:256}")
+    private int genreMaxResults; // Máximo de libros que se recorren al listar un género
 
-    // Método para inicializar los mapas de traducción de géneros y títulos
-    private void initializeTranslationMaps() {
-        genreTranslationMap.put("Fiction", "Ficción");
-        genreTranslationMap.put("Drama", "Drama");
-        genreTranslationMap.put("Comedy", "Comedia");
-        genreTranslationMap.put("Humor", "Humor");
-        genreTranslationMap.put("Other", "Otro");
+    @Autowired
+    private TitleTranslator titleTranslator; // Diccionario de títulos inglés <-> español
 
-        titleTranslationMap.put("pride and prejudice", "orgullo y prejuicio");
-        titleTranslationMap.put("romeo and juliet", "romeo y julieta");
-        titleTranslationMap.put("the scarlet letter", "la letra escarlata");
-        // Agregar más traducciones de títulos según sea necesario
-    }
+    @Autowired
+    private GenreClassifier genreClassifier; // Taxonomía de géneros a partir de los temas de Gutendex
 
-    // Método para buscar un libro por su título en la API externa
-    @Transactional
+    // Método para buscar un libro por su título: primero entre los libros guardados y, si no está, en la API externa.
+    // Sin transacción propia: la petición HTTP no retiene ninguna conexión y el libro encontrado se guarda en una escritura corta
     public Book searchBookByTitle(String title) {
         try {
             String searchTitle = translateTitleToEnglish(title.toLowerCase()); // Traducir el título a inglés si es necesario
-            String url = UriComponentsBuilder.fromHttpUrl(API_URL)
-                    .queryParam("search", searchTitle) // Agregar parámetro de búsqueda al URL
-                    .build()
-                    .toUriString();
-
-            // Hacer la solicitud a la API externa y obtener la respuesta JSON
-            JsonNode response = objectMapper.readTree(restTemplate.getForObject(url, String.class));
-            JsonNode results = response.get("results");
-
-            // Procesar los resultados de la API y verificar si el título coincide
-            if (results.isArray() && results.size() > 0) {
-                for (JsonNode bookData : results) {
-                    String bookTitle = bookData.get("title").asText();
-                    if (bookTitle.toLowerCase().contains(searchTitle.toLowerCase())) {
-                        Book book = createBookFromJsonNode(bookData); // Crear el libro a partir de los datos JSON
-                        translateBookToSpanish(book); // Traducir el libro al español
-                        return saveBook(book); // Guardar el libro en la base de datos
-                    }
-                }
+            Book local = findIndexedBook(title, searchTitle);
+            if (local != null) {
+                return local;
             }
-            System.out.println("No se encontró el libro con título: " + title);
+            // Hacer la solicitud a la API externa y procesar la respuesta JSON
+            return processTitleSearch(gutendexClient.getPage(buildSearchUrl(searchTitle), true), title, searchTitle);
         } catch (Exception e) {
-            System.err.println("Error al buscar el libro en la API: " + e.getMessage());
+            reportApiError("Error al buscar el libro en la API", e);
+        }
+        return null;
+    }
+
+    // Versión asíncrona de searchBookByTitle: la petición HTTP no ocupa ningún hilo mientras espera
+    public CompletableFuture<Book> searchBookByTitleAsync(String title) {
+        String searchTitle = translateTitleToEnglish(title.toLowerCase());
+        Book local = findIndexedBook(title, searchTitle);
+        if (local != null) {
+            return CompletableFuture.completedFuture(local);
+        }
+        return gutendexClient.getPageAsync(buildSearchUrl(searchTitle), true)
+                .thenApplyAsync(page -> processTitleSearch(page, title, searchTitle), taskExecutor)
+                .exceptionally(e -> {
+                    System.err.println("Error al buscar el libro en la API: " + e.getMessage());
+                    return null;
+                });
+    }
+
+    // Método para buscar en el índice local el libro más relevante para el título (tal cual o traducido al inglés).
+    // Solo cuentan las palabras del título: si coinciden el autor o los temas, se pregunta a la API
+    private Book findIndexedBook(String title, String searchTitle) {
+        if (!searchIndexEnabled) {
+            return null;
+        }
+        List<Long> ids = bookSearchIndex.searchTitles(title, 1);
+        if (ids.isEmpty() && !searchTitle.equalsIgnoreCase(title)) {
+            ids = bookSearchIndex.searchTitles(searchTitle, 1);
+        }
+        return ids.isEmpty() ? null : bookRepository.findWithAuthorByIdIn(ids).stream().findFirst().orElse(null);
+    }
+
+    // Método para buscar entre los libros guardados por palabras del título, el autor o los temas, del más relevante al menos
+    @Transactional(readOnly = true)
+    public List<Book> searchStoredBooks(String query, int limit) {
+        List<Long> ids = bookSearchIndex.search(query, limit);
+        Map<Long, Book> books = bookRepository.findWithAuthorByIdIn(ids).stream()
+                .collect(Collectors.toMap(Book::getId, book -> book));
+        return ids.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // Método para listar los libros guardados que están en todos los idiomas pedidos (ej. es y en), los más descargados primero.
+    // El filtro es una sola consulta sobre el índice GIN de language_ids y los libros se cargan después junto con su autor.
+    @Transactional(readOnly = true)
+    public Page<Book> getStoredBooksByLanguages(Collection<String> languages, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+        short[] languageIds = languageDictionary.find(languages);
+        if (languageIds == null) {
+            return Page.empty(pageRequest); // Algún idioma no aparece en ningún libro guardado
+        }
+        Page<Long> ids = bookRepository.findIdsByAllLanguageIds(languageIds, pageRequest);
+        Map<Long, Book> books = bookRepository.findWithAuthorByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(Book::getId, book -> book));
+        return ids.map(books::get);
+    }
+
+    // Método para quedarse con los libros que están en todos los idiomas pedidos, comparando sus conjuntos de bits
+    public List<Book> filterByLanguages(List<Book> books, Collection<String> languages) {
+        BitSet required = languageDictionary.findBits(languages);
+        if (required == null) {
+            return Collections.emptyList();
+        }
+        return books.stream()
+                .filter(book -> book.hasAllLanguages(required))
+                .collect(Collectors.toList());
+    }
+
+    // Método para informar un error al consultar la API: si Gutendex falló o no está disponible basta con el mensaje,
+    // la traza solo se muestra para errores inesperados
+    private void reportApiError(String message, Exception e) {
+        System.err.println(message + ": " + e.getMessage());
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (!(cause instanceof RestClientException)) {
             e.printStackTrace();
         }
+    }
+
+    // Método para construir el URL de búsqueda por título
+    private String buildSearchUrl(String searchTitle) {
+        return UriComponentsBuilder.fromHttpUrl(API_URL)
+                .queryParam("search", searchTitle) // Agregar parámetro de búsqueda al URL
+                .build()
+                .toUriString();
+    }
+
+    // Método para procesar la respuesta de una búsqueda por título
+    private Book processTitleSearch(GutendexPage page, String title, String searchTitle) {
+        // Procesar los resultados de la API y verificar si el título coincide
+        for (Book found : page.books()) {
+            if (found.getTitle() != null && found.getTitle().toLowerCase().contains(searchTitle.toLowerCase())) {
+                return saveBook(mapBook(found)); // Clasificar, traducir y guardar el libro
+            }
+        }
+        System.out.println("No se encontró el libro con título: " + title);
         return null;
     }
 
     // Método para traducir un título del español al inglés
     private String translateTitleToEnglish(String spanishTitle) {
-        return titleTranslationMap.entrySet().stream()
-                .filter(entry -> spanishTitle.contains(entry.getValue()))
-                .findFirst()
-                .map(Map.Entry::getKey)
-                .orElse(spanishTitle);
+        return titleTranslator.toEnglish(spanishTitle);
     }
 
-    // Método para obtener libros por género desde la API externa
-    @Transactional
+    // Método para obtener libros por género desde la API externa (recorre todas las páginas hasta el límite configurado).
+    // Cada página se descarga y decodifica sin transacción y después se guarda en una escritura corta
     public List<Book> getBooksByGenre(String genre) {
-        try {
-            String url = UriComponentsBuilder.fromHttpUrl(API_URL)
-                    .queryParam("topic", translateToEnglish(genre)) // Traducir el género al inglés
-                    .build()
-                    .toUriString();
-
-            // Hacer la solicitud a la API externa y obtener la respuesta JSON
-            JsonNode response = objectMapper.readTree(restTemplate.getForObject(url, String.class));
-            JsonNode results = response.get("results");
-
-            List<Book> books = new ArrayList<>();
-            if (results.isArray()) {
-                for (JsonNode bookData : results) {
-                    Book book = createBookFromJsonNode(bookData); // Crear el libro a partir de los datos JSON
-                    translateBookToSpanish(book); // Traducir el libro al español
-                    books.add(saveBook(book)); // Guardar el libro en la base de datos
-                }
-            }
-            if (books.isEmpty()) {
+        try (Stream<Book> books = streamBooksByGenre(genre, genreMaxResults)) {
+            List<Book> result = books.collect(Collectors.toList());
+            if (result.isEmpty()) {
                 System.out.println("No se encontraron libros del género: " + genre);
             }
-            return books;
+            return result;
         } catch (Exception e) {
-            System.err.println("Error al obtener libros por género: " + e.getMessage());
-            e.printStackTrace();
+            reportApiError("Error al obtener libros por género", e);
         }
         return Collections.emptyList();
     }
 
-    // Método para crear un libro a partir de los datos JSON de la API
-    private Book createBookFromJsonNode(JsonNode bookData) {
-        Book book = new Book();
-        book.setTitle(bookData.get("title").asText());
-        book.setDownloadCount(bookData.get("download_count").asLong());
-        book.setYearWritten(bookData.has("copyright") ? bookData.get("copyright").asInt() : null);
-        book.setGenre(determineGenre(bookData.get("subjects")));
-        book.setSearchCount(0L);
+    // Método para recorrer de forma perezosa los libros de un género, página a página.
+    // Cada libro se traduce y se guarda a medida que se consume; maxResults <= 0 significa sin límite.
+    // El Stream debe cerrarse para cancelar la descarga adelantada de la página siguiente.
+    // Un recorrido sin límite es un trabajo largo y sus peticiones ceden el turno a las de los usuarios.
+    public Stream<Book> streamBooksByGenre(String genre, int maxResults) {
+        GutendexPageIterator pages = gutendexClient.pages(buildTopicUrl(genre, 1),
+                maxResults > 0 ? RequestPriority.INTERACTIVE : RequestPriority.BULK);
+        Stream<Book> books = StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED), false)
+                .flatMap(page -> saveBooks(mapBooks(page)).stream()) // Cada página se guarda de una vez
+                .onClose(pages::close);
+        return maxResults > 0 ? books.limit(maxResults) : books;
+    }
 
-        // Procesar los autores del libro
-        JsonNode authors = bookData.get("authors");
-        if (authors.isArray() && authors.size() > 0) {
-            JsonNode authorData = authors.get(0);
-            Author author = new Author();
-            author.setName(authorData.get("name").asText());
-            author.setBirthYear(authorData.has("birth_year") ? authorData.get("birth_year").asInt() : null);
-            author.setDeathYear(authorData.has("death_year") ? authorData.get("death_year").asInt() : null);
-            book.setAuthor(findOrCreateAuthor(author)); // Verificar o crear el autor
-        }
+    // Versión asíncrona de getBooksByGenre: cada página se pide sin bloquear y la siguiente se lanza antes de guardar la actual.
+    // Si Gutendex falla, el futuro falla con ese error en lugar de devolver una lista vacía
+    public CompletableFuture<List<Book>> getBooksByGenreAsync(String genre) {
+        return fetchGenrePagesAsync(gutendexClient.getPageAsync(buildTopicUrl(genre, 1), true), new ArrayList<>())
+                .thenApply(books -> {
+                    if (books.isEmpty()) {
+                        System.out.println("No se encontraron libros del género: " + genre);
+                    }
+                    return books;
+                });
+    }
 
-        // Procesar los idiomas del libro
-        JsonNode languages = bookData.get("languages");
-        if (languages.isArray()) {
-            book.setLanguages(new ArrayList<>());
-            for (JsonNode lang : languages) {
-                book.getLanguages().add(lang.asText());
+    // Método para obtener una página de los libros de un género sin recorrer el resto. Gutendex devuelve 32 libros por
+    // página y acepta page=N, así que solo se piden las páginas de Gutendex que cubren la pedida (la primera, para el
+    // total, casi siempre sale de la caché) y solo se guardan los libros que se devuelven. El total es el de Gutendex
+    // hasta gutendex.genre.max-results. Si Gutendex falla, el futuro falla con ese error
+    public CompletableFuture<Page<Book>> getBooksByGenrePageAsync(String genre, int page, int size) {
+        PageRequest request = PageRequest.of(page, size);
+        return gutendexClient.getPageAsync(buildTopicUrl(genre, 1), false).thenCompose(header -> {
+            long total = Math.min(header.count(), genreMaxResults);
+            long from = request.getOffset();
+            long to = Math.min(from + size, total);
+            if (from >= to) {
+                return CompletableFuture.completedFuture(new PageImpl<>(List.<Book>of(), request, total));
             }
+            int firstPage = (int) (from / GUTENDEX_PAGE_SIZE) + 1;
+            int lastPage = (int) ((to - 1) / GUTENDEX_PAGE_SIZE) + 1;
+            List<CompletableFuture<GutendexPage>> pages = new ArrayList<>();
+            for (int number = firstPage; number <= lastPage; number++) {
+                pages.add(gutendexClient.getPageAsync(buildTopicUrl(genre, number), true));
+            }
+            return CompletableFuture.allOf(pages.toArray(CompletableFuture[]::new)).thenApplyAsync(ignored -> {
+                List<Book> books = pages.stream().flatMap(response -> response.join().books().stream()).toList();
+                int skip = (int) (from - (long) (firstPage - 1) * GUTENDEX_PAGE_SIZE);
+                List<Book> content = books.subList(Math.min(skip, books.size()), Math.min(skip + (int) (to - from), books.size()));
+                return new PageImpl<>(saveBooks(content.stream().map(this::mapBook).toList()), request, total);
+            }, taskExecutor);
+        });
+    }
+
+    // Método para obtener una página de los libros de un género que están en todos los idiomas pedidos. El filtro cambia
+    // las posiciones, así que se recorre desde la primera página de Gutendex, pero solo hasta completar la pedida (más un
+    // libro para saber si hay otra) o llegar a gutendex.genre.max-results. El total es exacto cuando el recorrido llega
+    // al final; si no, indica que hay al menos una página más. Solo se guardan los libros que se devuelven
+    public CompletableFuture<Page<Book>> getBooksByGenrePageAsync(String genre, Collection<String> languages, int page, int size) {
+        PageRequest request = PageRequest.of(page, size);
+        long needed = request.getOffset() + size + 1;
+        return collectGenreMatchesAsync(gutendexClient.getPageAsync(buildTopicUrl(genre, 1), true), languages, needed,
+                new ArrayList<>(), 0).thenApplyAsync(matches -> {
+                    int from = (int) Math.min(request.getOffset(), matches.size());
+                    List<Book> content = matches.subList(from, Math.min(from + size, matches.size()));
+                    return new PageImpl<>(saveBooks(content), request, matches.size());
+                }, taskExecutor);
+    }
+
+    // Método que filtra una página (clasificada y traducida, sin guardar) y encadena la siguiente mientras falten libros
+    private CompletableFuture<List<Book>> collectGenreMatchesAsync(CompletableFuture<GutendexPage> page, Collection<String> languages,
+                                                                   long needed, List<Book> matches, int scanned) {
+        return page.thenComposeAsync(response -> {
+            int limit = Math.min(response.books().size(), genreMaxResults - scanned);
+            matches.addAll(filterByLanguages(response.books().subList(0, limit).stream().map(this::mapBook).toList(), languages));
+            boolean more = response.next() != null && scanned + limit < genreMaxResults && matches.size() < needed;
+            return more
+                    ? collectGenreMatchesAsync(gutendexClient.getPageAsync(response.next(), true), languages, needed, matches, scanned + limit)
+                    : CompletableFuture.completedFuture(matches);
+        }, taskExecutor);
+    }
+
+    // Método que procesa una página y encadena la siguiente hasta llegar al límite
+    private CompletableFuture<List<Book>> fetchGenrePagesAsync(CompletableFuture<GutendexPage> page, List<Book> books) {
+        return page.thenComposeAsync(response -> {
+            boolean more = response.next() != null && books.size() + response.books().size() < genreMaxResults;
+            CompletableFuture<GutendexPage> nextPage = more ? gutendexClient.getPageAsync(response.next(), true) : null;
+            List<Book> saved = saveBooks(mapBooks(response));
+            books.addAll(saved.subList(0, Math.min(saved.size(), genreMaxResults - books.size())));
+            return nextPage != null ? fetchGenrePagesAsync(nextPage, books) : CompletableFuture.completedFuture(books);
+        }, taskExecutor);
+    }
+
+    // Método para construir el URL de búsqueda por género; la primera página va sin page=1, igual que los enlaces "next"
+    private String buildTopicUrl(String genre, int page) {
+        UriComponentsBuilder url = UriComponentsBuilder.fromHttpUrl(API_URL)
+                .queryParam("topic", translateToEnglish(genre)); // Traducir el género al inglés
+        if (page > 1) {
+            url.queryParam("page", page);
         }
+        return url.build().toUriString();
+    }
 
-        return book;
-    }
-
-    // Método para determinar el género del libro a partir de los temas
-    private String determineGenre(JsonNode subjects) {
-        if (subjects.isArray()) {
-            for (JsonNode subject : subjects) {
-                String subjectStr = subject.asText().toLowerCase();
-                if (subjectStr.contains("fiction")) {
-                    return "Fiction";
-                } else if (subjectStr.contains("drama")) {
-                    return "Drama";
-                } else if (subjectStr.contains("comedy")) {
-                    return "Comedy";
-                } else if (subjectStr.contains("humor")) {
-                    return "Humor";
-                }
-            }
+    // Método para clasificar y traducir todos los libros de una página de resultados
+    public List<Book> mapBooks(GutendexPage page) {
+        List<Book> books = new ArrayList<>();
+        for (Book book : page.books()) {
+            books.add(mapBook(book));
         }
-        return "Other";
+        return books;
+    }
+
+    // Método para completar un libro recién leído de la API sin acceder a la base de datos:
+    // se clasifica a partir de sus temas y se traduce al español
+    public Book mapBook(Book book) {
+        book.setSearchCount(0L);
+        GenreClassifier.Classification classification = genreClassifier.classify(book.getSubjects());
+        book.setGenre(classification.primary()); // Los géneros ya salen en español
+        book.setGenres(new ArrayList<>(classification.genres()));
+        translateBookToSpanish(book); // Traducir el libro al español
+        book.setLanguageIds(languageDictionary.encode(book.getLanguages())); // Los idiomas nuevos se registran antes de abrir la escritura
+        return book; // El autor se resuelve contra la base de datos al guardar el libro
     }
 
     // Método para traducir el libro al español
     private void translateBookToSpanish(Book book) {
         book.setTitle(translateTitleToSpanish(book.getTitle()));
-        book.setGenre(genreTranslationMap.getOrDefault(book.getGenre(), book.getGenre()));
         if (book.getAuthor() != null) {
             book.getAuthor().setName(translateAuthorNameToSpanish(book.getAuthor().getName()));
         }
@@ -191,11 +359,7 @@ public class BookService {
 
     // Método para traducir el título del libro al español
     private String translateTitleToSpanish(String englishTitle) {
-        return titleTranslationMap.entrySet().stream()
-                .filter(entry -> englishTitle.toLowerCase().contains(entry.getKey()))
-                .findFirst()
-                .map(Map.Entry::getValue)
-                .orElse(englishTitle);
+        return titleTranslator.toSpanish(englishTitle);
     }
 
     // Método para traducir el nombre del autor al español (si es necesario)
@@ -205,35 +369,14 @@ public class BookService {
 
     // Método para traducir el género al inglés
     private String translateToEnglish(String genre) {
-        for (Map.Entry<String, String> entry : genreTranslationMap.entrySet()) {
-            if (entry.getValue().equalsIgnoreCase(genre)) {
-                return entry.getKey();
-            }
-        }
-        return genre;
+        return genreClassifier.toEnglish(genre);
     }
 
     // Método para guardar un libro en la base de datos
-    @Transactional
     public Book saveBook(Book book) {
         try {
-            if (book.getAuthor() != null) {
-                Author existingAuthor = findOrCreateAuthor(book.getAuthor());
-                book.setAuthor(existingAuthor);
-            }
-
-            // Verificar si el libro ya existe en la base de datos
-            List<Book> existingBooks = bookRepository.findByTitleAndAuthor(book.getTitle(), book.getAuthor());
-            if (!existingBooks.isEmpty()) {
-                Book existingBook = existingBooks.get(0);
-                existingBook.setDownloadCount(book.getDownloadCount());
-                existingBook.setYearWritten(book.getYearWritten());
-                existingBook.setGenre(book.getGenre());
-                existingBook.setLanguages(book.getLanguages());
-                return bookRepository.save(existingBook);
-            } else {
-                return bookRepository.save(book);
-            }
+            List<Book> saved = saveBooks(List.of(book));
+            return saved.isEmpty() ? null : saved.get(0);
         } catch (Exception e) {
             System.err.println("Error al guardar el libro: " + e.getMessage());
             e.printStackTrace();
@@ -241,29 +384,83 @@ public class BookService {
         }
     }
 
-    // Método para verificar o crear un autor en la base de datos
+    // Método para guardar una página completa de libros: autores y libros se resuelven con una consulta cada uno
+    // y se escriben con una inserción múltiple en una transacción corta (ver PersistencePipeline);
+    // devuelve los libros guardados con su autor e idiomas cargados
+    public List<Book> saveBooks(List<Book> books) {
+        if (books.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<String, Long> authorIds = resolveAuthors(books); // Antes de abrir la transacción de los libros
+        List<Long> ids = persistencePipeline.write(() -> writeBooks(books, authorIds));
+        Map<Long, Book> saved = bookRepository.findWithAuthorByIdIn(ids).stream()
+                .collect(Collectors.toMap(Book::getId, book -> book));
+        return ids.stream()
+                .map(saved::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // Método para obtener los IDs de los autores de una página, fuera de la transacción de escritura de los libros
+    // (como los idiomas en mapBook). Los autores conocidos salen de memoria; el resto se busca o crea en una sola
+    // operación con su propia transacción corta, y si otro hilo ya está creando alguno, se espera a ese resultado
+    public Map<String, Long> resolveAuthors(List<Book> books) {
+        Map<String, Author> authors = new HashMap<>();
+        books.stream()
+                .map(Book::getAuthor)
+                .filter(Objects::nonNull)
+                .forEach(author -> authors.putIfAbsent(author.getName(), author));
+        return authorIdentityCache.resolve(authors.keySet(), missing -> persistencePipeline.write(() -> {
+            authorLifespanIndex.markStale(); // Puede haber autores nuevos
+            return bookBatchRepository.upsertAuthors(missing.stream().map(authors::get).collect(Collectors.toList()));
+        }));
+    }
+
+    // Método para escribir una página de libros sin volver a leerlos, con los IDs de autores de resolveAuthors;
+    // devuelve sus IDs
     @Transactional
+    public List<Long> writeBooks(List<Book> books, Map<String, Long> authorIds) {
+        List<Long> ids = bookBatchRepository.upsertPage(books, authorIds);
+        bookSearchIndex.refresh(ids); // Los libros nuevos o actualizados se pueden buscar en cuanto se confirme la transacción
+        return ids;
+    }
+
+    // Método para verificar o crear un autor en la base de datos.
+    // Devuelve una referencia al autor sin consultar la tabla cuando su ID ya está en memoria.
     public Author findOrCreateAuthor(Author author) {
-        return authorRepository.findByName(author.getName())
-                .orElseGet(() -> {
-                    try {
-                        return authorRepository.save(author);
-                    } catch (Exception e) {
-                        System.err.println("Error al guardar el autor: " + e.getMessage());
-                        e.printStackTrace();
-                        return null;
-                    }
-                });
+        Long id = authorIdentityCache.resolve(List.of(author.getName()), missing -> persistencePipeline.write(() -> {
+            authorLifespanIndex.markStale();
+            return bookBatchRepository.upsertAuthors(List.of(author));
+        })).get(author.getName());
+        return authorRepository.getReferenceById(id);
+    }
+
+    // Método para obtener los libros guardados de a un bloque, ordenados por ID: se pide el bloque siguiente al último ID
+    // recibido (0 para empezar), así cada página cuesta lo mismo y la memoria no depende del tamaño del catálogo
+    @Transactional(readOnly = true)
+    public List<Book> getBooksAfter(long afterId, int limit) {
+        return bookRepository.findByIdGreaterThanOrderById(afterId, Limit.of(limit));
     }
 
-    // Método para obtener todos los libros desde la base de datos
+    // Método para recorrer todos los libros guardados con su autor, en orden de ID y con memoria constante:
+    // se leen con un cursor y cada libro se separa del contexto de persistencia después de entregarlo. Devuelve cuántos hubo
     @Transactional(readOnly = true)
-    public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+    public long forEachBook(Consumer<Book> consumer) {
+        long count = 0;
+        try (Stream<Book> books = bookRepository.streamAllByOrderById()) {
+            for (Iterator<Book> iterator = books.iterator(); iterator.hasNext(); count++) {
+                Book book = iterator.next();
+                consumer.accept(book);
+                entityManager.detach(book);
+                if (book.getAuthor() != null) {
+                    entityManager.detach(book.getAuthor());
+                }
+            }
+        }
+        return count;
     }
 
     // Método para obtener los títulos de los libros por género
-    @Transactional
     public List<String> getBookTitlesByGenre(String genre) {
         return getBooksByGenre(genre).stream()
                 .map(Book::getTitle)
@@ -272,34 +469,62 @@ public class BookService {
     }
 
     // Método para obtener el conteo de libros por idioma
-    @Transactional(readOnly = true)
     public Map<String, Long> getBookCountByLanguage(String language) {
-        String url = UriComponentsBuilder.fromHttpUrl(API_URL)
-                .queryParam("languages", language)
-                .build()
-                .toUriString();
-
         try {
-            JsonNode response = objectMapper.readTree(restTemplate.getForObject(url, String.class));
-            long count = response.get("count").asLong();
-            return Map.of(language, count);
+            return processLanguageCount(gutendexClient.getPage(buildLanguageUrl(language), false), language);
         } catch (Exception e) {
-            System.err.println("Error al obtener el conteo de libros por idioma: " + e.getMessage());
-            e.printStackTrace();
+            reportApiError("Error al obtener el conteo de libros por idioma", e);
             return Collections.emptyMap();
         }
     }
 
+    // Versión asíncrona de getBookCountByLanguage
+    public CompletableFuture<Map<String, Long>> getBookCountByLanguageAsync(String language) {
+        return gutendexClient.getPageAsync(buildLanguageUrl(language), false)
+                .thenApply(page -> processLanguageCount(page, language)) // Sin acceso a la base de datos, no hace falta otro hilo
+                .exceptionally(e -> {
+                    System.err.println("Error al obtener el conteo de libros por idioma: " + e.getMessage());
+                    return Collections.emptyMap();
+                });
+    }
+
+    // Método para construir el URL de búsqueda por idioma
+    private String buildLanguageUrl(String language) {
+        return UriComponentsBuilder.fromHttpUrl(API_URL)
+                .queryParam("languages", language)
+                .build()
+                .toUriString();
+    }
+
+    // Método para extraer el conteo de libros de la respuesta de la API
+    private Map<String, Long> processLanguageCount(GutendexPage page, String language) {
+        return Map.of(language, page.count()); // Solo hace falta la cabecera: los resultados se saltan al decodificar
+    }
+
     // Método para obtener los libros más buscados
     @Transactional(readOnly = true)
     public List<Book> getMostSearchedBooks(int limit) {
-        return bookRepository.findAllByOrderBySearchCountDesc(PageRequest.of(0, limit));
+        return getMostSearchedBooks(limit, SearchRankingService.Window.ALL_TIME).stream()
+                .map(RankedBook::book)
+                .collect(Collectors.toList());
     }
 
-    // Método para incrementar el contador de búsquedas de un libro
-    @Transactional
+    // Método para obtener los libros más buscados en un periodo (última hora, día, semana o desde siempre).
+    // El ranking se mantiene en memoria; solo se leen de la base de datos los libros que aparecen en él.
+    @Transactional(readOnly = true)
+    public List<RankedBook> getMostSearchedBooks(int limit, SearchRankingService.Window window) {
+        LinkedHashMap<Long, Long> top = searchRankingService.top(window, limit);
+        Map<Long, Book> books = bookRepository.findWithAuthorByIdIn(top.keySet()).stream()
+                .collect(Collectors.toMap(Book::getId, book -> book));
+        return top.entrySet().stream()
+                .filter(entry -> books.containsKey(entry.getKey()))
+                .map(entry -> new RankedBook(books.get(entry.getKey()), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    // Método para incrementar el contador de búsquedas de un libro (se acumula en memoria y se escribe en segundo plano)
     public void incrementSearchCount(Book book) {
-        book.setSearchCount(book.getSearchCount() + 1);
-        bookRepository.save(book);
+        searchCountAggregator.record(book.getId());
+        searchRankingService.record(book.getId());
     }
 }
@@ -0,0 +1,84 @@
+package com.desafio.literalura.service;
+
+import com.desafio.literalura.client.GutendexClient;
+import com.desafio.literalura.client.GutendexPage;
+import com.desafio.literalura.client.GutendexPageIterator;
+import com.desafio.literalura.client.RequestPriority;
+import com.desafio.literalura.model.Book;
+import com.desafio.literalura.model.ImportCheckpoint;
+import com.desafio.literalura.repository.ImportCheckpointRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Timed("literalura.service")
+@Service // Importa el catálogo completo de Gutendex escribiendo cada página en lote
+public class CatalogImportService {
+
+    private static final String CHECKPOINT_NAME = "catalog"; // Nombre del punto de control de esta importación
+    private static final String CATALOG_URL = "https://gutendex.com/books"; // Primera página del catálogo
+
+    @Autowired
+    private GutendexClient gutendexClient; // Para recorrer las páginas de la API (con la prioridad más baja)
+
+    @Autowired
+    private BookService bookService; // Para convertir, traducir y guardar los libros de la API
+
+    @Autowired
+    private ImportCheckpointRepository checkpointRepository; // Progreso guardado de la importación
+
+    @Autowired
+    private PersistencePipeline persistencePipeline; // Una transacción corta por página, con turno de escritura
+
+    // Método para importar el catálogo; continúa desde la última página completada salvo que se pida empezar de nuevo
+    public void importCatalog(boolean restart) {
+        ImportCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT_NAME)
+                .filter(existing -> !restart)
+                .orElseGet(this::newCheckpoint);
+        if (checkpoint.getNextUrl() == null) {
+            System.out.println("El catálogo ya está importado (" + checkpoint.getBooksImported() + " libros).");
+            return;
+        }
+        if (checkpoint.getPagesCompleted() > 0) {
+            System.out.println("Reanudando la importación tras " + checkpoint.getPagesCompleted() + " páginas.");
+        }
+
+        try (GutendexPageIterator pages = gutendexClient.pages(checkpoint.getNextUrl(), RequestPriority.BULK)) {
+            while (pages.hasNext()) {
+                GutendexPage page = pages.next(); // La página siguiente ya se está descargando
+                List<Book> books = bookService.mapBooks(page);
+                checkpoint = importPage(books, checkpoint, page.next());
+                System.out.println("Página " + checkpoint.getPagesCompleted() + " importada ("
+                        + checkpoint.getBooksImported() + " libros en total).");
+            }
+        }
+        System.out.println("Importación del catálogo completada.");
+    }
+
+    // Método para escribir una página y su punto de control en la misma transacción
+    private ImportCheckpoint importPage(List<Book> books, ImportCheckpoint checkpoint, String nextUrl) {
+        Map<String, Long> authorIds = bookService.resolveAuthors(books); // Antes de abrir la transacción de la página
+        return persistencePipeline.write(() -> {
+            bookService.writeBooks(books, authorIds); // Libros de la página en unas pocas sentencias
+            checkpoint.setNextUrl(nextUrl);
+            checkpoint.setPagesCompleted(checkpoint.getPagesCompleted() + 1);
+            checkpoint.setBooksImported(checkpoint.getBooksImported() + books.size());
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            return checkpointRepository.save(checkpoint);
+        });
+    }
+
+    // Método para crear el punto de control de una importación nueva
+    private ImportCheckpoint newCheckpoint() {
+        ImportCheckpoint checkpoint = new ImportCheckpoint();
+        checkpoint.setName(CHECKPOINT_NAME);
+        checkpoint.setNextUrl(CATALOG_URL);
+        checkpoint.setPagesCompleted(0);
+        checkpoint.setBooksImported(0L);
+        return checkpoint;
+    }
+}
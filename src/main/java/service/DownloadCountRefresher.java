@@ -0,0 +1,181 @@
+package com.desafio.literalura.service;
+
+import com.desafio.literalura.client.GutendexClient;
+import com.desafio.literalura.client.GutendexPage;
+import com.desafio.literalura.client.RequestPriority;
+import com.desafio.literalura.model.Book;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+// Mantiene al día el contador de descargas de los libros guardados, que solo cambiaba al volver a buscar cada libro.
+// Se piden a Gutendex hasta 32 libros por petición (?ids=1,2,3...) y solo se escriben los que cambiaron.
+// Las peticiones salen con prioridad REFRESH, detrás de las interactivas. Además, la pausa entre peticiones se adapta:
+// crece mientras haya peticiones interactivas a Gutendex en curso o la API responda lento o con errores, y baja poco a poco
+// cuando todo va bien, así el refresco nunca compite con los usuarios.
+@Timed("literalura.service")
+@Service
+public class DownloadCountRefresher {
+
+    private static final String API_URL = "https://gutendex.com/books"; // URL base de la API externa
+    private static final int IDS_PER_REQUEST = 32; // Tamaño de página de Gutendex: más IDs partirían la respuesta en páginas
+    private static final int MAX_CONSECUTIVE_ERRORS = 5; // Errores seguidos tras los que se deja el refresco para la próxima vez
+
+    @Autowired
+    private GutendexClient gutendexClient;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PersistencePipeline persistencePipeline; // Una transacción corta por bloque con cambios
+
+    @Value("${literalura.download-counts.enabled:true}")
+    private boolean enabled; // Refresco periódico activado
+
+    @Value("${literalura.download-counts.min-delay:PT1S}")
+    private Duration minDelay; // Pausa mínima entre peticiones
+
+    @Value("${literalura.download-counts.max-delay:PT1M}")
+    private Duration maxDelay; // Pausa máxima entre peticiones
+
+    @Value("${literalura.download-counts.slow-response:PT3S}")
+    private Duration slowResponse; // Respuestas más lentas que esto se toman como señal de que la API está cargada
+
+    private long delayMillis; // Pausa actual entre peticiones
+
+    // Un refresco a la vez. Es un ReentrantLock y no synchronized porque el refresco espera pausas, a Gutendex y a la
+    // base de datos, y con hilos virtuales un synchronized dejaría el hilo del sistema ocupado todo ese tiempo
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    // Refresco periódico de todo el catálogo guardado
+    @Scheduled(fixedDelayString = "${literalura.download-counts.refresh-interval:PT24H}",
+            initialDelayString = "${literalura.download-counts.initial-delay:PT10M}")
+    public void scheduledRefresh() {
+        if (enabled) {
+            refreshAll();
+        }
+    }
+
+    // Método para refrescar los contadores de descargas de todos los libros con ID de Gutendex, por bloques de ID
+    public void refreshAll() {
+        if (!refreshLock.tryLock()) {
+            System.out.println("Ya hay un refresco de descargas en curso.");
+            return;
+        }
+        try {
+            refreshBlocks();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void refreshBlocks() {
+        long lastId = 0;
+        long requests = 0;
+        long checked = 0;
+        long changed = 0;
+        int errors = 0;
+        delayMillis = minDelay.toMillis();
+        try {
+            while (true) {
+                List<long[]> rows = new ArrayList<>(); // ID, ID de Gutendex y descargas guardadas (-1 si no hay)
+                // Recorrido por rangos de ID: cada bloque empieza donde terminó el anterior, sin OFFSET
+                jdbcTemplate.query("SELECT id, gutendex_id, download_count FROM books WHERE id > ? AND gutendex_id IS NOT NULL"
+                        + " ORDER BY id LIMIT ?", rs -> {
+                    long downloads = rs.getLong("download_count");
+                    rows.add(new long[]{rs.getLong("id"), rs.getLong("gutendex_id"), rs.wasNull() ? -1 : downloads});
+                }, lastId, IDS_PER_REQUEST);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                lastId = rows.get(rows.size() - 1)[0];
+
+                waitForTurn();
+                Map<Long, Long> downloads;
+                long start = System.nanoTime();
+                try {
+                    downloads = fetchDownloadCounts(rows);
+                    requests++;
+                    errors = 0;
+                } catch (Exception e) {
+                    slowDown();
+                    System.err.println("Error al refrescar descargas: " + e.getMessage());
+                    if (++errors >= MAX_CONSECUTIVE_ERRORS) {
+                        System.err.println("Refresco de descargas interrumpido tras " + errors + " errores seguidos.");
+                        return;
+                    }
+                    continue; // Este bloque queda para el próximo refresco
+                }
+                if (System.nanoTime() - start > slowResponse.toNanos()) {
+                    slowDown();
+                } else {
+                    delayMillis = Math.max(minDelay.toMillis(), delayMillis * 3 / 4);
+                }
+
+                List<Long> ids = new ArrayList<>();
+                List<Long> counts = new ArrayList<>();
+                for (long[] row : rows) {
+                    Long fresh = downloads.get(row[1]);
+                    if (fresh != null && fresh != row[2]) {
+                        ids.add(row[0]);
+                        counts.add(fresh);
+                    }
+                }
+                if (!ids.isEmpty()) {
+                    persistencePipeline.write(() -> jdbcTemplate.update("UPDATE books b SET download_count = d.downloads"
+                                    + " FROM unnest(?::bigint[], ?::bigint[]) AS d(id, downloads) WHERE b.id = d.id",
+                            ids.toArray(Long[]::new), counts.toArray(Long[]::new)));
+                }
+                checked += rows.size();
+                changed += ids.size();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Refresco de descargas cancelado.");
+            return;
+        }
+        System.out.println("Descargas refrescadas: " + changed + " de " + checked + " libros cambiaron (" + requests
+                + " peticiones a Gutendex).");
+    }
+
+    // Método para pedir un bloque de libros por sus IDs de Gutendex; devuelve ID de Gutendex -> descargas.
+    // La respuesta no se guarda en la caché: cada bloque se pide una sola vez y los datos deben ser actuales
+    private Map<Long, Long> fetchDownloadCounts(List<long[]> rows) {
+        String ids = rows.stream().map(row -> String.valueOf(row[1])).collect(Collectors.joining(","));
+        GutendexPage page = gutendexClient.getFreshPage(UriComponentsBuilder.fromHttpUrl(API_URL)
+                .queryParam("ids", ids)
+                .build()
+                .toUriString(), RequestPriority.REFRESH);
+        Map<Long, Long> downloads = new HashMap<>();
+        for (Book book : page.books()) {
+            if (book.getGutendexId() != null && book.getDownloadCount() != null) {
+                downloads.put(book.getGutendexId(), book.getDownloadCount());
+            }
+        }
+        return downloads;
+    }
+
+    // Método para esperar la pausa actual y, después, a que no haya peticiones interactivas a Gutendex en curso ni en cola;
+    // mientras las haya, la pausa se duplica. Las importaciones (BULK) no lo detienen: salen después de REFRESH
+    private void waitForTurn() throws InterruptedException {
+        Thread.sleep(delayMillis);
+        while (gutendexClient.hasInteractiveTraffic()) {
+            slowDown();
+            Thread.sleep(delayMillis);
+        }
+    }
+
+    private void slowDown() {
+        delayMillis = Math.min(maxDelay.toMillis(), Math.max(1, delayMillis) * 2);
+    }
+}
@@ -0,0 +1,138 @@
+package com.desafio.literalura.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Clasificador de temas de Gutendex en géneros literarios, compilado una sola vez a partir de la taxonomía.
+// Todas las palabras clave forman un único autómata, así cada tema se recorre una vez sin importar cuántos géneros haya,
+// y el resultado de cada tema se guarda en memoria porque los mismos temas se repiten en miles de libros.
+@Component
+public class GenreClassifier {
+
+    private static final Genre OTHER = new Genre(Integer.MAX_VALUE, "Other", "Otro"); // Género de los libros sin coincidencias
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${literalura.genres.taxonomy:classpath:genres/taxonomy.tsv}")
+    private String location; // Archivo con la taxonomía: prioridad, nombre en inglés, nombre en español y palabras clave
+
+    @Value("${literalura.genres.cache-size:50000}")
+    private int cacheSize; // Temas distintos cuyo resultado se guarda en memoria
+
+    private AhoCorasick<Keyword> keywords;
+    private final Map<String, Genre> bySpanishName = new HashMap<>();
+    private Cache<String, List<Genre>> subjectGenres;
+
+    // Resultado de clasificar un libro: el género principal y todos los que le corresponden, en español
+    public record Classification(String primary, List<String> genres) {
+    }
+
+    private record Genre(int priority, String english, String spanish) {
+    }
+
+    private record Keyword(String text, Genre genre) {
+    }
+
+    @PostConstruct
+    void init() {
+        Map<String, Keyword> dictionary = new HashMap<>();
+        for (String[] row : readTaxonomy(resourceLoader.getResource(location))) {
+            Genre genre = new Genre(Integer.parseInt(row[0].trim()), row[1].trim(), row[2].trim());
+            bySpanishName.put(genre.spanish().toLowerCase(), genre);
+            for (String keyword : row[3].split(",")) {
+                String text = keyword.trim().toLowerCase();
+                Keyword existing = dictionary.get(text);
+                // Una palabra clave repetida se queda con el género de mayor prioridad
+                if (!text.isEmpty() && (existing == null || existing.genre().priority() > genre.priority())) {
+                    dictionary.put(text, new Keyword(text, genre));
+                }
+            }
+        }
+        bySpanishName.put(OTHER.spanish().toLowerCase(), OTHER);
+        keywords = new AhoCorasick<>(dictionary);
+        subjectGenres = Caffeine.newBuilder().maximumSize(cacheSize).build();
+        System.out.println("Taxonomía de géneros cargada: " + (bySpanishName.size() - 1) + " géneros, "
+                + keywords.size() + " palabras clave");
+    }
+
+    // Método para clasificar un libro a partir de sus temas
+    public Classification classify(Collection<String> subjects) {
+        SortedSet<Genre> genres = new TreeSet<>(Comparator.comparingInt(Genre::priority).thenComparing(Genre::english));
+        if (subjects != null) {
+            for (String subject : subjects) {
+                genres.addAll(subjectGenres.get(subject, this::classifySubject));
+            }
+        }
+        if (genres.isEmpty()) {
+            return new Classification(OTHER.spanish(), List.of(OTHER.spanish()));
+        }
+        return new Classification(genres.first().spanish(), genres.stream().map(Genre::spanish).toList());
+    }
+
+    // Método para obtener el nombre en inglés de un género (el que entiende la API); si no se conoce se devuelve igual
+    public String toEnglish(String spanishGenre) {
+        Genre genre = bySpanishName.get(spanishGenre.toLowerCase());
+        return genre != null ? genre.english() : spanishGenre;
+    }
+
+    // Géneros de un tema: palabras clave completas, descartando las que quedan dentro de otra coincidencia más larga
+    private List<Genre> classifySubject(String subject) {
+        String text = subject.toLowerCase(Locale.ROOT);
+        List<int[]> spans = new ArrayList<>(); // Inicio, fin y posición en "found" de cada coincidencia
+        List<Genre> found = new ArrayList<>();
+        keywords.forEachMatch(text, (start, keyword) -> {
+            int end = start + keyword.text().length();
+            if (isWordBoundary(text, start - 1) && isWordBoundary(text, end)) {
+                spans.add(new int[]{start, end, found.size()});
+                found.add(keyword.genre());
+            }
+        });
+        List<Genre> genres = new ArrayList<>();
+        for (int[] span : spans) {
+            boolean contained = spans.stream().anyMatch(other -> other != span
+                    && other[0] <= span[0] && span[1] <= other[1] && other[1] - other[0] > span[1] - span[0]);
+            if (!contained && !genres.contains(found.get(span[2]))) {
+                genres.add(found.get(span[2]));
+            }
+        }
+        return List.copyOf(genres);
+    }
+
+    private static boolean isWordBoundary(String text, int index) {
+        return index < 0 || index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+    }
+
+    private static List<String[]> readTaxonomy(Resource resource) {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\t");
+                if (parts.length != 4) {
+                    throw new IllegalStateException("Línea no válida en la taxonomía de géneros: " + line);
+                }
+                rows.add(parts);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer la taxonomía de géneros " + resource.getDescription(), e);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,72 @@
+package com.desafio.literalura.service;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+@Timed("literalura.service")
+@Service // Vuelve a calcular los géneros de los libros guardados a partir de sus temas, sin consultar la API
+public class GenreReclassificationService {
+
+    private static final int BATCH_SIZE = 1000; // Libros que se leen y actualizan por transacción
+
+    @Autowired
+    private GenreClassifier genreClassifier;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Método para reclasificar todos los libros con temas guardados; solo se escriben los que cambian de género
+    public void reclassifyAll() {
+        long lastId = 0;
+        long read = 0;
+        long changed = 0;
+        while (true) {
+            long afterId = lastId;
+            List<Object[]> updates = new ArrayList<>();
+            List<Long> ids = new ArrayList<>();
+            // Recorrido por rangos de ID: cada lote empieza donde terminó el anterior, sin OFFSET
+            jdbcTemplate.query("SELECT id, genre, genres, subjects FROM books WHERE id > ? AND subjects IS NOT NULL"
+                    + " ORDER BY id LIMIT ?", rs -> {
+                long id = rs.getLong("id");
+                ids.add(id);
+                GenreClassifier.Classification classification = genreClassifier.classify(toList(rs.getArray("subjects")));
+                if (!Objects.equals(classification.primary(), rs.getString("genre"))
+                        || !classification.genres().equals(toList(rs.getArray("genres")))) {
+                    updates.add(new Object[]{classification.primary(), classification.genres().toArray(String[]::new), id});
+                }
+            }, afterId, BATCH_SIZE);
+            if (ids.isEmpty()) {
+                break;
+            }
+            if (!updates.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate("UPDATE books SET genre = ?, genres = ? WHERE id = ?", updates));
+            }
+            lastId = ids.get(ids.size() - 1);
+            read += ids.size();
+            changed += updates.size();
+            System.out.println("Libros revisados: " + read + " (" + changed + " con géneros nuevos)");
+        }
+        System.out.println("Reclasificación de géneros completada: " + changed + " de " + read + " libros actualizados.");
+    }
+
+    private static List<String> toList(Array array) throws SQLException {
+        if (array == null) {
+            return List.of();
+        }
+        return Arrays.stream((Object[]) array.getArray()).map(String.class::cast).toList();
+    }
+}
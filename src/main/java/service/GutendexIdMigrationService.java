@@ -0,0 +1,158 @@
+package com.desafio.literalura.service;
+
+import com.desafio.literalura.client.GutendexClient;
+import com.desafio.literalura.client.GutendexPage;
+import com.desafio.literalura.client.GutendexPageIterator;
+import com.desafio.literalura.client.RequestPriority;
+import com.desafio.literalura.model.Book;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.*;
+
+// Migración única: completa books.gutendex_id en los libros guardados antes de que existiera y une los libros repetidos.
+// Antes los libros se identificaban por título y autor, y como el título se guarda traducido, la misma obra podía quedar
+// guardada dos veces (por ejemplo, antes y después de agregar su traducción al diccionario).
+@Timed("literalura.service")
+@Service
+public class GutendexIdMigrationService {
+
+    private static final String API_URL = "https://gutendex.com/books"; // URL base de la API externa
+    private static final int AUTHOR_BATCH_SIZE = 100; // Autores que se leen por consulta
+
+    @Autowired
+    private GutendexClient gutendexClient; // Para buscar en la API los libros de cada autor
+
+    @Autowired
+    private TitleTranslator titleTranslator; // Para comparar los títulos guardados (traducidos) con los de la API
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PersistencePipeline persistencePipeline; // Una transacción corta por autor, con turno de escritura
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex; // Hay que rehacerlo si se borran libros repetidos
+
+    @Autowired
+    private SearchCountAggregator searchCountAggregator; // Búsquedas pendientes de los libros borrados
+
+    @Autowired
+    private SearchRankingService searchRankingService; // Ranking en memoria con los libros borrados
+
+    // Método para migrar todos los libros sin ID de Gutendex. Se hace una búsqueda en la API por autor (no por libro)
+    // y se reconoce cada libro por el nombre del autor y por su título original o traducido
+    public void migrateAll() {
+        long lastAuthorId = 0;
+        long assigned = 0;
+        long merged = 0;
+        long unresolved = 0;
+        while (true) {
+            Map<Long, String> authors = new LinkedHashMap<>();
+            // Recorrido por rangos de ID de los autores con libros sin migrar
+            jdbcTemplate.query("SELECT a.id, a.name FROM authors a WHERE a.id > ? AND EXISTS"
+                    + " (SELECT 1 FROM books b WHERE b.author_id = a.id AND b.gutendex_id IS NULL) ORDER BY a.id LIMIT ?", rs -> {
+                authors.put(rs.getLong("id"), rs.getString("name"));
+            }, lastAuthorId, AUTHOR_BATCH_SIZE);
+            if (authors.isEmpty()) {
+                break;
+            }
+            for (Map.Entry<Long, String> author : authors.entrySet()) {
+                Map<Long, String> titles = new HashMap<>();
+                jdbcTemplate.query("SELECT id, title FROM books WHERE author_id = ? AND gutendex_id IS NULL", rs -> {
+                    titles.put(rs.getLong("id"), rs.getString("title"));
+                }, author.getKey());
+                Map<Long, Long> found = findGutendexIds(author.getValue(), titles); // Sin transacción: solo red
+                if (!found.isEmpty()) {
+                    Map<Long, Long> survivors = persistencePipeline.write(() -> assign(found));
+                    // Ya confirmada la transacción, lo que hay en memoria pasa de los borrados a los conservados
+                    if (!survivors.isEmpty()) {
+                        searchCountAggregator.remap(survivors);
+                        searchRankingService.remap(survivors);
+                    }
+                    merged += survivors.size();
+                }
+                assigned += found.size();
+                unresolved += titles.size() - found.size();
+            }
+            lastAuthorId = authors.keySet().stream().reduce((first, second) -> second).orElseThrow();
+            System.out.println("Autores revisados hasta el ID " + lastAuthorId + ": " + assigned + " libros con ID de Gutendex, "
+                    + merged + " repetidos unidos");
+        }
+        if (merged > 0) {
+            bookSearchIndex.rebuild();
+        }
+        System.out.println("Migración de IDs de Gutendex completada: " + assigned + " libros actualizados, " + merged
+                + " repetidos unidos, " + unresolved + " sin encontrar en la API.");
+    }
+
+    // Método para buscar en la API los libros de un autor; devuelve ID del libro guardado -> ID de Gutendex.
+    // Si la API tiene varias ediciones con el mismo título se usa la primera (la más descargada)
+    private Map<Long, Long> findGutendexIds(String authorName, Map<Long, String> titles) {
+        Map<Long, Long> found = new HashMap<>();
+        String url = UriComponentsBuilder.fromHttpUrl(API_URL)
+                .queryParam("search", authorName.replaceAll("[^\\p{L}\\p{N}]+", " ").trim()) // La API busca por palabras
+                .build()
+                .toUriString();
+        try (GutendexPageIterator pages = gutendexClient.pages(url, RequestPriority.BULK)) {
+            while (pages.hasNext() && found.size() < titles.size()) {
+                GutendexPage page = pages.next();
+                for (Book candidate : page.books()) {
+                    if (candidate.getGutendexId() == null || candidate.getTitle() == null || candidate.getAuthor() == null
+                            || !authorName.equals(candidate.getAuthor().getName())) {
+                        continue;
+                    }
+                    String translated = titleTranslator.toSpanish(candidate.getTitle());
+                    titles.forEach((id, title) -> {
+                        if (title != null && (title.equalsIgnoreCase(candidate.getTitle()) || title.equalsIgnoreCase(translated))) {
+                            found.putIfAbsent(id, candidate.getGutendexId());
+                        }
+                    });
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("No se pudieron buscar los libros de " + authorName + ": " + e.getMessage());
+        }
+        return found;
+    }
+
+    // Método para guardar los IDs encontrados. Los libros que resultan ser la misma obra (entre sí o con un libro que ya
+    // tenía ese ID) se unen en el de menor ID, sumando sus búsquedas; devuelve los libros borrados al unirlos con el
+    // libro en el que quedaron (borrado -> conservado)
+    private Map<Long, Long> assign(Map<Long, Long> found) {
+        Map<Long, SortedSet<Long>> groups = new HashMap<>(); // ID de Gutendex -> libros que son esa obra
+        found.forEach((bookId, gutendexId) -> groups.computeIfAbsent(gutendexId, key -> new TreeSet<>()).add(bookId));
+        jdbcTemplate.query("SELECT id, gutendex_id FROM books WHERE gutendex_id = ANY(?)", rs -> {
+            groups.get(rs.getLong("gutendex_id")).add(rs.getLong("id"));
+        }, (Object) groups.keySet().toArray(Long[]::new));
+
+        List<Object[]> merges = new ArrayList<>();
+        List<Object[]> keys = new ArrayList<>();
+        Map<Long, Long> duplicates = new HashMap<>();
+        groups.forEach((gutendexId, bookIds) -> {
+            Long survivor = bookIds.first();
+            Long[] others = bookIds.tailSet(survivor + 1).toArray(Long[]::new);
+            if (others.length > 0) {
+                merges.add(new Object[]{others, others, survivor});
+                for (Long other : others) {
+                    duplicates.put(other, survivor);
+                }
+            }
+            keys.add(new Object[]{gutendexId, survivor});
+        });
+        if (!merges.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE books SET search_count = coalesce(search_count, 0)"
+                    + " + (SELECT coalesce(sum(search_count), 0) FROM books WHERE id = ANY(?)),"
+                    + " download_count = greatest(download_count, (SELECT max(download_count) FROM books WHERE id = ANY(?)))"
+                    + " WHERE id = ?", merges);
+            // Se borran antes de asignar los IDs porque uno de ellos puede ser el que ya tenía el ID de Gutendex
+            jdbcTemplate.update("DELETE FROM books WHERE id = ANY(?)", (Object) duplicates.keySet().toArray(Long[]::new));
+        }
+        jdbcTemplate.batchUpdate("UPDATE books SET gutendex_id = ? WHERE id = ?", keys);
+        return duplicates;
+    }
+}
@@ -0,0 +1,89 @@
+package com.desafio.literalura.service;
+
+import com.desafio.literalura.repository.BookRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+@Timed("literalura.service")
+@Service // Conteos de libros para varios idiomas a la vez: en Gutendex (en paralelo) y en la base de datos local
+public class LanguageStatsService {
+
+    @Autowired
+    private BookService bookService; // Conteo de un idioma en la API
+
+    @Autowired
+    private BookRepository bookRepository; // Conteo local agrupado por idioma
+
+    @Value("${gutendex.languages.all:en,es,fr,de,it,pt,nl,fi,sv,da,no,pl,ru,la,el,zh,ja,ca,eo,hu,tl,cy}")
+    private List<String> knownLanguages; // Idiomas que se consultan cuando se piden "todos"
+
+    @Value("${gutendex.cache.ttl.languages:1h}")
+    private Duration countTtl; // Tiempo que se reutiliza un conteo de la API
+
+    private Cache<String, Long> remoteCounts; // Idioma -> cantidad de libros en Gutendex
+
+    @PostConstruct
+    void init() {
+        remoteCounts = Caffeine.newBuilder().expireAfterWrite(countTtl).build();
+    }
+
+    // Método para obtener la cantidad de libros en Gutendex para varios idiomas ("all" = todos los conocidos).
+    // Los que no están en memoria se piden a la vez; un idioma que falla se omite del resultado y no se guarda.
+    public CompletableFuture<Map<String, Long>> getRemoteCounts(Collection<String> languages) {
+        Set<String> codes = normalize(languages);
+        Map<String, Long> result = new TreeMap<>(remoteCounts.getAllPresent(codes));
+        List<CompletableFuture<Map<String, Long>>> requests = codes.stream()
+                .filter(code -> !result.containsKey(code))
+                .map(bookService::getBookCountByLanguageAsync)
+                .toList();
+        return CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).thenApply(done -> {
+            for (CompletableFuture<Map<String, Long>> request : requests) {
+                Map<String, Long> count = request.join(); // Ya terminada; los errores llegan como mapa vacío
+                remoteCounts.putAll(count);
+                result.putAll(count);
+            }
+            return result;
+        });
+    }
+
+    // Método para obtener la cantidad de libros guardados para varios idiomas ("all" = todos los que hay en la base de datos)
+    @Transactional(readOnly = true)
+    public Map<String, Long> getLocalCounts(Collection<String> languages) {
+        Map<String, Long> all = new TreeMap<>();
+        for (Object[] row : bookRepository.countBooksByLanguage()) {
+            all.put((String) row[0], (Long) row[1]);
+        }
+        if (isAll(languages)) {
+            return all;
+        }
+        Map<String, Long> result = new TreeMap<>();
+        normalize(languages).forEach(code -> result.put(code, all.getOrDefault(code, 0L)));
+        return result;
+    }
+
+    // Método para convertir la lista pedida en códigos en minúsculas sin repetir
+    private Set<String> normalize(Collection<String> languages) {
+        Collection<String> codes = isAll(languages) ? knownLanguages : languages;
+        Set<String> result = new LinkedHashSet<>();
+        for (String code : codes) {
+            if (!code.isBlank()) {
+                result.add(code.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return result;
+    }
+
+    private boolean isAll(Collection<String> languages) {
+        return languages.isEmpty() || languages.stream().anyMatch(code -> code.trim().equalsIgnoreCase("all"));
+    }
+}
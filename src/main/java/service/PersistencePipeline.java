@@ -0,0 +1,88 @@
+package com.desafio.literalura.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Segunda fase de todo lo que llega de Gutendex: la descarga y la decodificación ocurren antes, sin conexión a la base de datos,
+// y aquí se escribe el resultado en una transacción corta. Las escrituras simultáneas se limitan por debajo del tamaño del pool:
+// las que sobran esperan en memoria, sin ocupar conexiones, y las lecturas siempre encuentran conexiones libres.
+@Component
+public class PersistencePipeline {
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${literalura.persistence.max-concurrent-writes:4}")
+    private int maxConcurrentWrites; // Transacciones de escritura abiertas a la vez
+
+    @Value("${literalura.persistence.write-timeout:30s}")
+    private Duration writeTimeout; // Espera máxima por un turno de escritura
+
+    private Semaphore writePermits;
+    private final AtomicInteger queuedWrites = new AtomicInteger(); // Escrituras esperando turno
+    private Timer waitTimer;
+    private Timer writeTimer;
+
+    @PostConstruct
+    void init() {
+        writePermits = new Semaphore(maxConcurrentWrites, true);
+        Gauge.builder("literalura.pipeline.write.queue", queuedWrites, AtomicInteger::get)
+                .description("Escrituras esperando turno")
+                .register(meterRegistry);
+        Gauge.builder("literalura.pipeline.write.active", writePermits, permits -> maxConcurrentWrites - permits.availablePermits())
+                .description("Transacciones de escritura abiertas")
+                .register(meterRegistry);
+        waitTimer = Timer.builder("literalura.pipeline.write.wait")
+                .description("Tiempo esperando turno de escritura")
+                .register(meterRegistry);
+        writeTimer = Timer.builder("literalura.pipeline.write")
+                .description("Duración de las transacciones de escritura")
+                .register(meterRegistry);
+    }
+
+    // Método para ejecutar una escritura en su propia transacción cuando llega su turno; si ya hay una transacción abierta
+    // se usa esa (la conexión ya está ocupada y pedir turno otra vez podría bloquear a quien la tiene)
+    public <T> T write(Supplier<T> write) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return write.get();
+        }
+        acquire();
+        try {
+            return writeTimer.record(() -> transactionTemplate.execute(status -> write.get()));
+        } finally {
+            writePermits.release();
+        }
+    }
+
+    private void acquire() {
+        queuedWrites.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            if (!writePermits.tryAcquire(writeTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("No hubo turno de escritura en " + writeTimeout.toSeconds() + " s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Escritura interrumpida mientras esperaba turno", e);
+        } finally {
+            queuedWrites.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
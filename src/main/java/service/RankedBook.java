@@ -0,0 +1,7 @@
+package com.desafio.literalura.service;
+
+import com.desafio.literalura.model.Book;
+
+// Libro del ranking de más buscados junto con sus búsquedas en el periodo consultado
+public record RankedBook(Book book, long searches) {
+}
@@ -0,0 +1,84 @@
+package com.desafio.literalura.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Acumula en memoria las búsquedas de cada libro y las escribe periódicamente en la base de datos,
+// así registrar una búsqueda no cuesta ninguna consulta en el camino de la respuesta al usuario.
+@Component
+public class SearchCountAggregator {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Un contador por libro; LongAdder reparte las escrituras concurrentes entre varias celdas
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock(); // Una escritura a la vez
+
+    // Método para registrar una búsqueda de un libro
+    public void record(Long bookId) {
+        pending.computeIfAbsent(bookId, id -> new LongAdder()).increment();
+    }
+
+    // Método para pasar las búsquedas pendientes de libros borrados al libro con el que se unieron (borrado -> conservado).
+    // Toma el bloqueo de escritura para no mezclarse con una escritura que ya sumó los contadores viejos
+    public void remap(Map<Long, Long> survivors) {
+        flushLock.lock();
+        try {
+            survivors.forEach((deleted, survivor) -> {
+                LongAdder adder = pending.remove(deleted);
+                long delta = adder != null ? adder.sumThenReset() : 0;
+                if (delta > 0) {
+                    pending.computeIfAbsent(survivor, id -> new LongAdder()).add(delta);
+                }
+            });
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Método para escribir las búsquedas acumuladas con una única sentencia UPDATE
+    @Scheduled(fixedDelayString = "${literalura.search-count.flush-interval:PT5S}")
+    @PreDestroy
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Long> ids = new ArrayList<>();
+            List<Long> deltas = new ArrayList<>();
+            pending.forEach((id, adder) -> {
+                long delta = adder.sumThenReset(); // Las búsquedas que lleguen mientras tanto quedan para la siguiente vez
+                if (delta > 0) {
+                    ids.add(id);
+                    deltas.add(delta);
+                }
+            });
+            if (ids.isEmpty()) {
+                return;
+            }
+            try {
+                // La suma se hace en la base de datos, así que no se pierden incrementos aunque haya varias instancias
+                jdbcTemplate.update("UPDATE books b SET search_count = COALESCE(b.search_count, 0) + d.delta"
+                                + " FROM unnest(?::bigint[], ?::bigint[]) AS d(id, delta) WHERE b.id = d.id",
+                        ids.toArray(Long[]::new), deltas.toArray(Long[]::new));
+            } catch (Exception e) {
+                System.err.println("Error al guardar los contadores de búsqueda: " + e.getMessage());
+                // Devolver los incrementos para reintentarlos en la siguiente escritura
+                for (int i = 0; i < ids.size(); i++) {
+                    pending.computeIfAbsent(ids.get(i), id -> new LongAdder()).add(deltas.get(i));
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.desafio.literalura.service;
+
+import com.desafio.literalura.repository.BookRepository;
+import com.desafio.literalura.repository.BookSearchCount;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Ranking de los libros más buscados mantenido en memoria a medida que llegan las búsquedas.
+// Cada periodo usa un resumen Space-Saving de tamaño fijo: los libros poco buscados pueden salir del
+// resumen, pero los primeros puestos se mantienen exactos o sobreestimados como mucho en el mínimo del resumen.
+// Registrar una búsqueda no toma ningún bloqueo: se anota en una cola y los resúmenes se actualizan por tandas,
+// al consultar el ranking o cuando se juntan DRAIN_THRESHOLD búsquedas, por el hilo que consiga el bloqueo.
+@Component
+public class SearchRankingService {
+
+    // Periodos disponibles para el ranking
+    public enum Window {
+        HOUR(Duration.ofMinutes(1), 60), // Última hora en tramos de un minuto
+        DAY(Duration.ofHours(1), 24), // Último día en tramos de una hora
+        WEEK(Duration.ofDays(1), 7), // Última semana en tramos de un día
+        ALL_TIME(null, 0); // Desde siempre
+
+        private final Duration bucket;
+        private final int buckets;
+
+        Window(Duration bucket, int buckets) {
+            this.bucket = bucket;
+            this.buckets = buckets;
+        }
+    }
+
+    private static final int DRAIN_THRESHOLD = 256; // Búsquedas en cola a partir de las cuales se pasan a los resúmenes
+
+    // Búsqueda registrada y todavía sin pasar a los resúmenes
+    private record Search(Long bookId, long time) {
+    }
+
+    @Autowired
+    private BookRepository bookRepository; // Para arrancar el ranking con los contadores guardados
+
+    @Autowired
+    private ObjectMapper objectMapper; // Para guardar y leer la copia en disco
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory; // Garantiza que la tabla ya existe al precargar el ranking
+
+    @Value("${literalura.ranking.capacity:1000}")
+    private int capacity; // Libros distintos que se siguen en cada resumen
+
+    @Value("${literalura.ranking.snapshot-path:}")
+    private String snapshotPath; // Archivo con los rankings por periodo (vacío = no se guardan)
+
+    private SpaceSaving allTime;
+    private final Map<Window, WindowRing> rings = new EnumMap<>(Window.class);
+    private final ReentrantLock lock = new ReentrantLock(); // Protege los resúmenes
+    private final Queue<Search> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    @PostConstruct
+    void init() {
+        allTime = new SpaceSaving(capacity);
+        for (Window window : Window.values()) {
+            if (window != Window.ALL_TIME) {
+                rings.put(window, new WindowRing(window, capacity));
+            }
+        }
+        // Arranque en frío: los más buscados de siempre salen de la tabla (índice sobre search_count)
+        for (BookSearchCount count : bookRepository.findSearchCountsGreaterThan(0L, PageRequest.of(0, capacity))) {
+            allTime.add(count.id(), count.searchCount());
+        }
+        loadSnapshot();
+    }
+
+    // Método para registrar una búsqueda en todos los periodos. Si ya hay muchas en cola y nadie las está pasando
+    // a los resúmenes, lo hace este hilo; si otro tiene el bloqueo, no espera
+    public void record(Long bookId) {
+        pending.add(new Search(bookId, System.currentTimeMillis()));
+        if (pendingCount.incrementAndGet() >= DRAIN_THRESHOLD && lock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Método para pasar a los resúmenes las búsquedas en cola (con el bloqueo tomado)
+    private void drain() {
+        Search search;
+        while ((search = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            allTime.add(search.bookId(), 1);
+            for (WindowRing ring : rings.values()) {
+                ring.add(search.bookId(), search.time());
+            }
+        }
+    }
+
+    // Método para obtener los IDs de los libros más buscados del periodo con su número de búsquedas, en orden descendente
+    public LinkedHashMap<Long, Long> top(Window window, int limit) {
+        Map<Long, Long> counts;
+        lock.lock();
+        try {
+            drain();
+            if (window == Window.ALL_TIME) {
+                return allTime.top(limit); // Directo desde los grupos de mayor contador
+            }
+            counts = rings.get(window).totals(System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+        // Montículo de tamaño limit con el menor en la cima: O(n log k)
+        PriorityQueue<Map.Entry<Long, Long>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Long, Long> entry : counts.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<Map.Entry<Long, Long>> sorted = new ArrayList<>(heap);
+        sorted.sort(Map.Entry.<Long, Long>comparingByValue().reversed());
+        LinkedHashMap<Long, Long> result = new LinkedHashMap<>();
+        sorted.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    // Método para pasar las búsquedas de libros borrados al libro con el que se unieron (borrado -> conservado),
+    // en todos los periodos, así el ranking no muestra IDs que ya no existen
+    public void remap(Map<Long, Long> survivors) {
+        lock.lock();
+        try {
+            drain();
+            survivors.forEach((deleted, survivor) -> {
+                move(allTime, deleted, survivor);
+                rings.values().forEach(ring -> ring.forEachBucket(summary -> move(summary, deleted, survivor)));
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void move(SpaceSaving summary, Long from, Long to) {
+        long count = summary.remove(from);
+        if (count > 0) {
+            summary.add(to, count); // Hay lugar: se acaba de liberar uno
+        }
+    }
+
+    // Método para guardar los rankings por periodo en disco
+    @Scheduled(fixedDelayString = "${literalura.ranking.snapshot-interval:PT1M}")
+    @PreDestroy
+    public void saveSnapshot() {
+        if (snapshotPath.isBlank()) {
+            return;
+        }
+        Map<String, List<Map<String, Object>>> data = new HashMap<>();
+        lock.lock();
+        try {
+            drain();
+            rings.forEach((window, ring) -> data.put(window.name(), ring.export()));
+        } finally {
+            lock.unlock();
+        }
+        try { // El archivo se escribe sin el bloqueo
+            objectMapper.writeValue(new File(snapshotPath), data);
+        } catch (IOException e) {
+            System.err.println("No se pudo guardar el ranking de búsquedas: " + e.getMessage());
+        }
+    }
+
+    // Método para restaurar los rankings por periodo guardados en disco
+    private void loadSnapshot() {
+        if (snapshotPath.isBlank() || !new File(snapshotPath).isFile()) {
+            return;
+        }
+        try {
+            Map<String, List<Map<String, Object>>> data = objectMapper.readValue(new File(snapshotPath), new TypeReference<>() {
+            });
+            data.forEach((window, buckets) -> {
+                WindowRing ring = rings.get(Window.valueOf(window));
+                if (ring != null) {
+                    ring.restore(buckets);
+                }
+            });
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("No se pudo leer el ranking de búsquedas: " + e.getMessage());
+        }
+    }
+
+    // Anillo de tramos de tiempo: cada tramo tiene su propio resumen y los tramos viejos se reutilizan
+    private static final class WindowRing {
+
+        private final long bucketMillis;
+        private final int capacity;
+        private final SpaceSaving[] buckets;
+        private final long[] bucketStarts;
+
+        WindowRing(Window window, int capacity) {
+            this.bucketMillis = window.bucket.toMillis();
+            this.capacity = capacity;
+            this.buckets = new SpaceSaving[window.buckets];
+            this.bucketStarts = new long[window.buckets];
+            Arrays.fill(bucketStarts, -1);
+        }
+
+        void add(Long id, long now) {
+            bucketFor(now).add(id, 1);
+        }
+
+        private SpaceSaving bucketFor(long time) {
+            long start = time / bucketMillis * bucketMillis;
+            int index = (int) ((time / bucketMillis) % buckets.length);
+            if (bucketStarts[index] != start) {
+                buckets[index] = new SpaceSaving(capacity); // El tramo quedó fuera del periodo: se vacía
+                bucketStarts[index] = start;
+            }
+            return buckets[index];
+        }
+
+        // Suma de los tramos que siguen dentro del periodo
+        Map<Long, Long> totals(long now) {
+            long oldest = now - buckets.length * bucketMillis;
+            Map<Long, Long> totals = new HashMap<>();
+            for (int i = 0; i < buckets.length; i++) {
+                if (buckets[i] != null && bucketStarts[i] > oldest) {
+                    buckets[i].forEach((id, count) -> totals.merge(id, count, Long::sum));
+                }
+            }
+            return totals;
+        }
+
+        void forEachBucket(Consumer<SpaceSaving> action) {
+            for (SpaceSaving bucket : buckets) {
+                if (bucket != null) {
+                    action.accept(bucket);
+                }
+            }
+        }
+
+        List<Map<String, Object>> export() {
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (int i = 0; i < buckets.length; i++) {
+                if (buckets[i] != null) {
+                    result.add(Map.of("start", bucketStarts[i], "counts", buckets[i].toMap()));
+                }
+            }
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        void restore(List<Map<String, Object>> exported) {
+            for (Map<String, Object> bucket : exported) {
+                long start = ((Number) bucket.get("start")).longValue();
+                SpaceSaving target = bucketFor(start);
+                ((Map<String, Number>) bucket.get("counts"))
+                        .forEach((id, count) -> target.add(Long.valueOf(id), count.longValue()));
+            }
+        }
+    }
+}
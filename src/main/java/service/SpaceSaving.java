@@ -0,0 +1,157 @@
+package com.desafio.literalura.service;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+// Resumen Space-Saving con la estructura Stream-Summary: guarda como mucho "capacity" libros con su contador.
+// Los contadores se agrupan en una lista doblemente enlazada ordenada de menor a mayor, donde cada grupo tiene los
+// libros con ese mismo contador. Sumar una búsqueda mueve el libro al grupo siguiente y el mínimo siempre está en la
+// cabeza, así registrar una búsqueda y reemplazar al menos buscado cuestan O(1) sin recorrer el resumen.
+// No es seguro para varios hilos: quien lo usa se encarga de protegerlo.
+final class SpaceSaving {
+
+    private final int capacity;
+    private final Map<Long, Bucket> bucketOf = new HashMap<>(); // Libro -> grupo de su contador
+    private Bucket head; // Grupo con el menor contador
+    private Bucket tail; // Grupo con el mayor contador
+
+    // Grupo de libros con el mismo contador
+    private static final class Bucket {
+
+        private final long count;
+        private final Set<Long> ids = new LinkedHashSet<>();
+        private Bucket previous;
+        private Bucket next;
+
+        Bucket(long count) {
+            this.count = count;
+        }
+    }
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // Método para sumar amount búsquedas a un libro. Si el resumen está lleno y el libro no está, ocupa el lugar
+    // de uno de los menos buscados heredando su contador (la sobreestimación máxima de Space-Saving)
+    void add(Long id, long amount) {
+        Bucket current = bucketOf.get(id);
+        long base = 0;
+        if (current != null) {
+            base = current.count;
+        } else if (bucketOf.size() >= capacity) {
+            if (head == null) {
+                return; // Capacidad 0
+            }
+            current = head;
+            Long evicted = current.ids.iterator().next();
+            current.ids.remove(evicted);
+            bucketOf.remove(evicted);
+            current.ids.add(id); // Toma el lugar del reemplazado y desde ahí sube
+            base = current.count;
+        }
+        move(id, current, base + amount);
+    }
+
+    // Método para pasar un libro del grupo from (null si es nuevo) al grupo con el contador indicado, creándolo
+    // si no existe. El destino se busca desde el grupo de origen: con una búsqueda más es el grupo siguiente
+    private void move(Long id, Bucket from, long count) {
+        Bucket previous = from; // Último grupo con contador <= count
+        Bucket cursor = from != null ? from.next : head;
+        while (cursor != null && cursor.count <= count) {
+            previous = cursor;
+            cursor = cursor.next;
+        }
+        Bucket target = previous;
+        if (previous == null || previous.count != count) {
+            target = new Bucket(count);
+            linkAfter(previous, target);
+        }
+        if (from != null && from != target) {
+            from.ids.remove(id);
+            if (from.ids.isEmpty()) {
+                unlink(from);
+            }
+        }
+        target.ids.add(id);
+        bucketOf.put(id, target);
+    }
+
+    // Inserta el grupo después de previous (al principio si previous es null)
+    private void linkAfter(Bucket previous, Bucket bucket) {
+        Bucket next = previous != null ? previous.next : head;
+        bucket.previous = previous;
+        bucket.next = next;
+        if (previous != null) {
+            previous.next = bucket;
+        } else {
+            head = bucket;
+        }
+        if (next != null) {
+            next.previous = bucket;
+        } else {
+            tail = bucket;
+        }
+    }
+
+    private void unlink(Bucket bucket) {
+        if (bucket.previous != null) {
+            bucket.previous.next = bucket.next;
+        } else {
+            head = bucket.next;
+        }
+        if (bucket.next != null) {
+            bucket.next.previous = bucket.previous;
+        } else {
+            tail = bucket.previous;
+        }
+    }
+
+    // Método para sacar un libro del resumen; devuelve el contador que tenía (0 si no estaba)
+    long remove(Long id) {
+        Bucket bucket = bucketOf.remove(id);
+        if (bucket == null) {
+            return 0;
+        }
+        bucket.ids.remove(id);
+        if (bucket.ids.isEmpty()) {
+            unlink(bucket);
+        }
+        return bucket.count;
+    }
+
+    // Contador de un libro, o 0 si no está en el resumen
+    long count(Long id) {
+        Bucket bucket = bucketOf.get(id);
+        return bucket != null ? bucket.count : 0;
+    }
+
+    int size() {
+        return bucketOf.size();
+    }
+
+    // Método para obtener los limit libros más buscados en orden descendente, recorriendo los grupos desde el mayor: O(limit)
+    LinkedHashMap<Long, Long> top(int limit) {
+        LinkedHashMap<Long, Long> result = new LinkedHashMap<>();
+        for (Bucket bucket = tail; bucket != null && result.size() < limit; bucket = bucket.previous) {
+            for (Iterator<Long> ids = bucket.ids.iterator(); ids.hasNext() && result.size() < limit; ) {
+                result.put(ids.next(), bucket.count);
+            }
+        }
+        return result;
+    }
+
+    void forEach(BiConsumer<Long, Long> action) {
+        for (Bucket bucket = head; bucket != null; bucket = bucket.next) {
+            for (Long id : bucket.ids) {
+                action.accept(id, bucket.count);
+            }
+        }
+    }
+
+    Map<Long, Long> toMap() {
+        Map<Long, Long> counts = new HashMap<>();
+        forEach(counts::put);
+        return counts;
+    }
+}
@@ -0,0 +1,107 @@
+package com.desafio.literalura.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Traductor de títulos inglés <-> español a partir de un diccionario externo.
+// Cada sentido usa un autómata de Aho-Corasick, así traducir un título cuesta lo mismo con tres entradas que con miles.
+// Si el diccionario es un archivo del sistema, se vuelve a cargar cuando cambia.
+@Component
+public class TitleTranslator {
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${literalura.translations.titles:classpath:translations/titles.tsv}")
+    private String location; // Archivo con una traducción por línea: inglés<TAB>español
+
+    private volatile Dictionary dictionary = new Dictionary(Map.of()); // Se reemplaza completo en cada recarga
+    private long lastModified = -1; // Fecha del archivo cargado, para detectar cambios
+    private final ReentrantLock reloadLock = new ReentrantLock(); // Una recarga a la vez (lee un archivo)
+
+    @PostConstruct
+    void init() {
+        reloadIfChanged();
+    }
+
+    // Método para traducir un título del español al inglés; si no contiene ningún título conocido se devuelve igual
+    public String toEnglish(String spanishTitle) {
+        String english = dictionary.toEnglish.longestMatch(spanishTitle);
+        return english != null ? english : spanishTitle;
+    }
+
+    // Método para traducir un título del inglés al español; si no contiene ningún título conocido se devuelve igual
+    public String toSpanish(String englishTitle) {
+        String spanish = dictionary.toSpanish.longestMatch(englishTitle);
+        return spanish != null ? spanish : englishTitle;
+    }
+
+    // Revisión periódica del diccionario; un archivo con errores deja el diccionario anterior en uso
+    @Scheduled(fixedDelayString = "${literalura.translations.reload-interval:PT30S}",
+            initialDelayString = "${literalura.translations.reload-interval:PT30S}")
+    public void reloadIfChanged() {
+        reloadLock.lock();
+        try {
+            Resource resource = resourceLoader.getResource(location);
+            try {
+                long modified = resource.isFile() ? resource.lastModified() : 0;
+                if (modified == lastModified) {
+                    return;
+                }
+                Map<String, String> englishToSpanish = read(resource);
+                dictionary = new Dictionary(englishToSpanish);
+                lastModified = modified;
+                System.out.println("Traducciones de títulos cargadas: " + englishToSpanish.size());
+            } catch (IOException e) {
+                System.err.println("No se pudo leer el diccionario de títulos " + location + ": " + e.getMessage());
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private Map<String, String> read(Resource resource) throws IOException {
+        Map<String, String> englishToSpanish = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\t");
+                if (parts.length != 2 || parts[0].isBlank() || parts[1].isBlank()) {
+                    throw new IOException("Línea no válida: " + line);
+                }
+                englishToSpanish.put(parts[0].trim().toLowerCase(), parts[1].trim().toLowerCase());
+            }
+        }
+        return englishToSpanish;
+    }
+
+    // Los dos autómatas construidos a partir de la misma versión del diccionario
+    private static final class Dictionary {
+
+        private final AhoCorasick<String> toSpanish;
+        private final AhoCorasick<String> toEnglish;
+
+        Dictionary(Map<String, String> englishToSpanish) {
+            Map<String, String> spanishToEnglish = new HashMap<>();
+            englishToSpanish.forEach((english, spanish) -> spanishToEnglish.putIfAbsent(spanish, english));
+            toSpanish = new AhoCorasick<>(englishToSpanish);
+            toEnglish = new AhoCorasick<>(spanishToEnglish);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.desafio.literalura;
+
+import com.desafio.literalura.client.GutendexResponseCache;
+import com.desafio.literalura.model.Author;
+import com.desafio.literalura.model.Book;
+import com.desafio.literalura.service.AuthorService;
+import com.desafio.literalura.service.BookService;
+import com.desafio.literalura.service.GutendexIdMigrationService;
+import com.desafio.literalura.service.SearchRankingService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Cada listado debe leer libros, autores e idiomas con un número fijo de sentencias, sin importar cuántas filas devuelva.
+// Usa un PostgreSQL embebido porque el esquema depende de arreglos e índices GIN.
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadPathStatementCountTest {
+
+    private static final String ROMANCE_URL = "https://gutendex.com/books?topic=Romance";
+    private static final String ZETA_URL = "https://gutendex.com/books?search=Zeta";
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    static {
+        System.setIn(new ByteArrayInputStream("7\n".getBytes())); // El menú de consola termina en cuanto arranca
+    }
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private GutendexResponseCache responseCache;
+
+    @Autowired
+    private GutendexIdMigrationService gutendexIdMigrationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    // Guarda una página de Gutendex (servida desde la caché, sin red) y registra búsquedas de todos sus libros
+    @BeforeAll
+    void loadBooks() throws IOException {
+        responseCache.put(ROMANCE_URL, new ClassPathResource("gutendex/romance-page.json").getContentAsByteArray());
+        List<Book> books = bookService.getBooksByGenre("Romance");
+        assertFalse(books.isEmpty());
+        books.forEach(bookService::incrementSearchCount);
+    }
+
+    @Test
+    void storedBooksByIdRange() {
+        assertBooksRead(1, () -> bookService.getBooksAfter(0, 2));
+    }
+
+    @Test
+    void bookExport() {
+        // Un único cursor para toda la tabla, con el autor en la misma fila
+        List<Book> books = new ArrayList<>();
+        assertStatements(1, () -> bookService.forEachBook(book -> {
+            book.getAuthor().getName();
+            books.add(book);
+        }));
+        assertEquals(bookService.getBooksAfter(0, 100).size(), books.size());
+    }
+
+    @Test
+    void booksByGenre() {
+        assertBooksRead(1, () -> bookService.getBooksByGenre("Romance")); // La página se guarda con JDBC y se relee una vez
+    }
+
+    @Test
+    void searchByTitle() {
+        assertBooksRead(1, () -> List.of(bookService.searchBookByTitle("orgullo y prejuicio")));
+    }
+
+    @Test
+    void storedBookSearch() {
+        assertBooksRead(1, () -> bookService.searchStoredBooks("austen", 10));
+    }
+
+    @Test
+    void mostSearchedBooks() {
+        assertBooksRead(1, () -> bookService.getMostSearchedBooks(10, SearchRankingService.Window.ALL_TIME).stream()
+                .map(ranked -> ranked.book())
+                .toList());
+    }
+
+    @Test
+    void booksByLanguages() {
+        // IDs de la página y libros con su autor; el total no se cuenta aparte porque la página no está llena
+        assertBooksRead(2, () -> bookService.getStoredBooksByLanguages(List.of("en", "es"), 0, 10).getContent());
+    }
+
+    @Test
+    void authorsByGenre() {
+        assertAuthorsRead(1, () -> authorService.getAuthorsByBookGenre("Romance"));
+    }
+
+    @Test
+    void storedAuthorsByIdRange() {
+        assertAuthorsRead(1, () -> authorService.getAuthorsAfter(0, 2));
+    }
+
+    @Test
+    void authorsAliveInYear() {
+        assertAuthorsRead(1, () -> authorService.getAuthorsAliveInYear(1800, 0, 20).getContent());
+    }
+
+    // La migración une en el libro de menor ID los guardados dos veces (sin ID de Gutendex) y el que ya tenía ese ID
+    @Test
+    void gutendexIdMigrationMergesDuplicates() {
+        responseCache.put(ZETA_URL, ("{\"count\":1,\"next\":null,\"results\":[{\"id\":990001,\"title\":\"The Zeta Story\","
+                + "\"authors\":[{\"name\":\"Zeta\",\"birth_year\":1800,\"death_year\":1850}],\"languages\":[\"en\"],"
+                + "\"subjects\":[],\"download_count\":40}]}").getBytes());
+        jdbcTemplate.update("INSERT INTO authors (id, name, birth_year, death_year) VALUES (900001, 'Zeta', 1800, 1850)");
+        jdbcTemplate.update("INSERT INTO books (id, gutendex_id, title, author_id, download_count, search_count) VALUES"
+                + " (900001, NULL, 'the zeta story', 900001, 10, 2)," // Guardado por título, antes de existir la columna
+                + " (900002, 990001, 'The Zeta Story', 900001, 40, 5)," // Ya guardado con su ID de Gutendex
+                + " (900003, NULL, 'The Zeta Story', 900001, 20, 3)");
+
+        gutendexIdMigrationService.migrateAll();
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, gutendex_id, search_count, download_count FROM books WHERE author_id = 900001");
+        assertEquals(1, rows.size());
+        assertEquals(900001L, ((Number) rows.get(0).get("id")).longValue());
+        assertEquals(990001L, ((Number) rows.get(0).get("gutendex_id")).longValue());
+        assertEquals(10L, ((Number) rows.get(0).get("search_count")).longValue()); // Búsquedas de los tres
+        assertEquals(40L, ((Number) rows.get(0).get("download_count")).longValue());
+    }
+
+    // Cuenta las sentencias del listado y de leer el autor y los idiomas de cada libro, como hacen la consola y la API
+    private void assertBooksRead(long expected, Supplier<List<Book>> listing) {
+        assertStatements(expected, () -> {
+            List<Book> books = listing.get();
+            assertFalse(books.isEmpty());
+            for (Book book : books) {
+                book.getAuthor().getName();
+                book.getLanguages().size();
+            }
+        });
+    }
+
+    private void assertAuthorsRead(long expected, Supplier<List<Author>> listing) {
+        assertStatements(expected, () -> {
+            List<Author> authors = listing.get();
+            assertFalse(authors.isEmpty());
+            authors.forEach(Author::getName);
+        });
+    }
+
+    private void assertStatements(long expected, Runnable listing) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        listing.run();
+        assertEquals(expected, statistics.getPrepareStatementCount(), "Sentencias ejecutadas por Hibernate");
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.desafio.literalura.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Circuito hacia Gutendex: apertura tras fallos seguidos, fallo inmediato y una sola petición de prueba al pasar el tiempo
+class CircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofMinutes(1));
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess(); // Un éxito reinicia la cuenta
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+        assertTrue(breaker.retryAfter().compareTo(Duration.ZERO) > 0);
+    }
+
+    @Test
+    void lateSuccessDoesNotCloseAnOpenCircuit() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofMinutes(1));
+        breaker.onFailure();
+        breaker.onSuccess(); // Respuesta de una petición anterior a la apertura
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void probeSuccessClosesTheCircuit() throws InterruptedException {
+        CircuitBreaker breaker = openedBreaker();
+
+        assertTrue(breaker.tryAcquire()); // La de prueba
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire()); // Las demás esperan su resultado
+
+        breaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+        assertEquals(Duration.ZERO, breaker.retryAfter());
+    }
+
+    @Test
+    void probeFailureReopensTheCircuit() throws InterruptedException {
+        CircuitBreaker breaker = openedBreaker();
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire()); // Otro periodo completo abierto
+    }
+
+    @Test
+    void abandonedProbeLetsAnotherRequestProbe() throws InterruptedException {
+        CircuitBreaker breaker = openedBreaker();
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onAbandoned(); // La prueba no llegó a salir (sin turno en la cola propia)
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    // Circuito abierto con un periodo corto que ya pasó
+    private static CircuitBreaker openedBreaker() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofMillis(20));
+        breaker.onFailure();
+        assertFalse(breaker.tryAcquire());
+        Thread.sleep(40);
+        return breaker;
+    }
+}
@@ -0,0 +1,101 @@
+package com.desafio.literalura.client;
+
+import com.desafio.literalura.model.Book;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Decodificación en streaming de las páginas de Gutendex: campos usados, campos saltados y valores raros
+class GutendexPageDecoderTest {
+
+    private final GutendexPageDecoder decoder = new GutendexPageDecoder(new ObjectMapper());
+
+    @Test
+    void decodesARealPage() throws IOException {
+        GutendexPage page = decoder.decode(new ClassPathResource("gutendex/romance-page.json").getContentAsByteArray(), true);
+
+        assertEquals(5, page.count());
+        assertNull(page.next());
+        assertEquals(5, page.books().size());
+        assertEquals(1342L, page.books().get(0).getGutendexId());
+        assertEquals("Pride and Prejudice", page.books().get(0).getTitle());
+    }
+
+    @Test
+    void keepsTheFirstAuthorAndSkipsUnusedFields() {
+        GutendexPage page = decode("""
+                {"count": 2, "next": "https://gutendex.com/books?page=2", "previous": null,
+                 "results": [{"id": 7, "title": "Uno", "formats": {"text/html": "x", "nested": {"a": [1, 2]}},
+                              "authors": [{"name": "Primero", "birth_year": 1800, "death_year": null},
+                                          {"name": "Segundo", "birth_year": 1900}],
+                              "languages": ["en", "es"], "subjects": ["Love -- Fiction"],
+                              "copyright": false, "download_count": 42}]}
+                """);
+
+        assertEquals(2, page.count());
+        assertEquals("https://gutendex.com/books?page=2", page.next());
+        Book book = page.books().get(0);
+        assertEquals(7L, book.getGutendexId());
+        assertEquals("Primero", book.getAuthor().getName());
+        assertEquals(1800, book.getAuthor().getBirthYear());
+        assertEquals(0, book.getAuthor().getDeathYear()); // Igual que JsonNode.asInt(): null = 0
+        assertEquals(List.of("en", "es"), book.getLanguages());
+        assertEquals(List.of("Love -- Fiction"), book.getSubjects());
+        assertEquals(0, book.getYearWritten());
+        assertEquals(42L, book.getDownloadCount());
+    }
+
+    @Test
+    void toleratesUnexpectedShapes() {
+        GutendexPage page = decode("""
+                {"results": [{"id": "abc", "title": "Raro", "authors": null, "languages": ["en", {"x": 1}, ["y"]],
+                              "subjects": "no es un arreglo", "copyright": true}],
+                 "count": 1}
+                """);
+
+        Book book = page.books().get(0);
+        assertNull(book.getGutendexId());
+        assertNull(book.getAuthor());
+        assertEquals(List.of("en"), book.getLanguages());
+        assertTrue(book.getSubjects().isEmpty());
+        assertEquals(1, book.getYearWritten());
+        assertEquals(0L, book.getDownloadCount()); // Sin download_count
+    }
+
+    @Test
+    void headerOnlySkipsTheResults() {
+        List<Book> seen = new ArrayList<>();
+        GutendexPage page = decoder.decode(bytes("{\"results\": [{\"id\": 1}, {\"id\": 2}], \"count\": 9, \"next\": null}"), false);
+        decoder.decode(new ByteArrayInputStream(bytes("{\"results\": [{\"id\": 1}, {\"id\": 2}]}")), seen::add);
+
+        assertEquals(9, page.count());
+        assertTrue(page.books().isEmpty());
+        assertEquals(2, seen.size());
+    }
+
+    @Test
+    void rejectsInvalidJson() {
+        assertThrows(UncheckedIOException.class, () -> decode("[1, 2]"));
+        assertThrows(UncheckedIOException.class, () -> decode("{\"results\": [{\"id\": 1"));
+    }
+
+    private GutendexPage decode(String json) {
+        return decoder.decode(bytes(json), true);
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
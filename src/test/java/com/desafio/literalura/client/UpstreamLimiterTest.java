@@ -0,0 +1,129 @@
+package com.desafio.literalura.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Planificador de peticiones a Gutendex: orden por prioridad, reserva para las interactivas, ritmo, pausas y timeouts
+class UpstreamLimiterTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @Test
+    void higherPriorityLeavesTheQueueFirst() throws Exception {
+        try (UpstreamLimiter limiter = new UpstreamLimiter(1, 0, 0, 1)) {
+            limiter.acquire(RequestPriority.INTERACTIVE, WAIT).get(1, TimeUnit.SECONDS);
+            CompletableFuture<Void> bulk = limiter.acquire(RequestPriority.BULK, WAIT);
+            CompletableFuture<Void> refresh = limiter.acquire(RequestPriority.REFRESH, WAIT);
+            CompletableFuture<Void> interactive = limiter.acquire(RequestPriority.INTERACTIVE, WAIT);
+            assertEquals(3, limiter.queued());
+
+            limiter.release(RequestPriority.INTERACTIVE);
+            assertTrue(interactive.isDone());
+            assertFalse(refresh.isDone());
+
+            limiter.release(RequestPriority.INTERACTIVE);
+            assertTrue(refresh.isDone());
+            assertFalse(bulk.isDone());
+
+            limiter.release(RequestPriority.REFRESH);
+            assertTrue(bulk.isDone());
+            assertEquals(0, limiter.queued());
+            assertEquals(1, limiter.inUse(RequestPriority.BULK));
+        }
+    }
+
+    @Test
+    void reservedPermitsAreOnlyForInteractiveRequests() throws Exception {
+        try (UpstreamLimiter limiter = new UpstreamLimiter(3, 1, 0, 1)) {
+            limiter.acquire(RequestPriority.BULK, WAIT).get(1, TimeUnit.SECONDS);
+            limiter.acquire(RequestPriority.BULK, WAIT).get(1, TimeUnit.SECONDS);
+            CompletableFuture<Void> thirdBulk = limiter.acquire(RequestPriority.BULK, WAIT);
+            assertFalse(thirdBulk.isDone()); // El último permiso queda reservado
+
+            limiter.acquire(RequestPriority.INTERACTIVE, WAIT).get(1, TimeUnit.SECONDS);
+
+            assertEquals(3, limiter.inUse());
+            assertEquals(1, limiter.inUse(RequestPriority.INTERACTIVE));
+            assertEquals(2, limiter.inUse(RequestPriority.BULK));
+            assertEquals(1, limiter.queued(RequestPriority.BULK));
+
+            limiter.release(RequestPriority.INTERACTIVE);
+            assertFalse(thirdBulk.isDone()); // Se liberó el reservado: sigue sin poder usarlo
+            limiter.release(RequestPriority.BULK);
+            assertTrue(thirdBulk.isDone());
+        }
+    }
+
+    @Test
+    void tokenBucketAllowsABurstAndThenKeepsTheRate() throws Exception {
+        try (UpstreamLimiter limiter = new UpstreamLimiter(10, 0, 20, 2)) {
+            limiter.acquire(RequestPriority.BULK, WAIT).get(1, TimeUnit.SECONDS);
+            limiter.acquire(RequestPriority.BULK, WAIT).get(1, TimeUnit.SECONDS);
+            long start = System.nanoTime();
+            CompletableFuture<Void> third = limiter.acquire(RequestPriority.BULK, WAIT);
+            assertFalse(third.isDone()); // La ráfaga se agotó aunque sobran permisos
+
+            third.get(1, TimeUnit.SECONDS);
+
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(30), "Una ficha cada 50 ms");
+        }
+    }
+
+    @Test
+    void pauseHoldsEveryRequestUntilItEnds() throws Exception {
+        try (UpstreamLimiter limiter = new UpstreamLimiter(10, 0, 0, 1)) {
+            long start = System.nanoTime();
+            limiter.pause(Duration.ofMillis(200)); // Retry-After
+            CompletableFuture<Void> interactive = limiter.acquire(RequestPriority.INTERACTIVE, WAIT);
+            assertFalse(interactive.isDone());
+
+            interactive.get(2, TimeUnit.SECONDS);
+
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(180), "Salió antes de terminar la pausa");
+        }
+    }
+
+    @Test
+    void pauseLongerThanTheTimeoutMustBeWaitedOutsideTheQueue() throws Exception {
+        try (UpstreamLimiter limiter = new UpstreamLimiter(10, 0, 0, 1)) {
+            Duration timeout = Duration.ofMillis(100);
+            limiter.pause(Duration.ofMillis(300)); // Retry-After mayor que la espera por turno
+            CompletableFuture<Void> queued = limiter.acquire(RequestPriority.BULK, timeout);
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(2, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause()); // Se confundiría con una cola llena
+
+            Thread.sleep(300); // Como el reintento del cliente: espera la pausa y después pide turno
+            limiter.acquire(RequestPriority.BULK, timeout).get(1, TimeUnit.SECONDS);
+            assertEquals(1, limiter.inUse(RequestPriority.BULK));
+        }
+    }
+
+    @Test
+    void waitingTooLongFailsAndLeavesTheQueue() throws Exception {
+        try (UpstreamLimiter limiter = new UpstreamLimiter(1, 0, 0, 1)) {
+            limiter.acquire(RequestPriority.REFRESH, WAIT).get(1, TimeUnit.SECONDS);
+            CompletableFuture<Void> late = limiter.acquire(RequestPriority.REFRESH, Duration.ofMillis(50));
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> late.get(2, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+            assertEquals(0, limiter.queued());
+
+            CompletableFuture<Void> next = limiter.acquire(RequestPriority.REFRESH, WAIT);
+            limiter.release(RequestPriority.REFRESH); // El permiso pasa al siguiente, no al que caducó
+            next.get(1, TimeUnit.SECONDS);
+            assertEquals(1, limiter.inUse(RequestPriority.REFRESH));
+        }
+    }
+}
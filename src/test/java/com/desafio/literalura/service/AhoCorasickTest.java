@@ -0,0 +1,90 @@
+package com.desafio.literalura.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Autómata de Aho-Corasick: todas las coincidencias (también solapadas y dentro de otras) y la más larga
+class AhoCorasickTest {
+
+    @Test
+    void findsOverlappingAndNestedMatches() {
+        AhoCorasick<String> automaton = new AhoCorasick<>(Map.of("he", "he", "she", "she", "his", "his", "hers", "hers"));
+
+        List<String> matches = new ArrayList<>();
+        automaton.forEachMatch("ushers", (start, value) -> matches.add(value + "@" + start));
+
+        assertEquals(List.of("she@1", "he@2", "hers@2"), matches);
+    }
+
+    @Test
+    void longestMatchPrefersTheLongestPattern() {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        dictionary.put("old", 1);
+        dictionary.put("the old man", 2);
+        dictionary.put("sea", 3);
+        AhoCorasick<Integer> automaton = new AhoCorasick<>(dictionary);
+
+        assertEquals(2, automaton.longestMatch("The Old Man and the Sea"));
+        assertEquals(3, automaton.longestMatch("the sea"));
+        assertNull(automaton.longestMatch("moby dick"));
+        assertNull(automaton.longestMatch(""));
+    }
+
+    @Test
+    void ignoresEmptyPatternsAndKeepsTheFirstOfEachCaseInsensitiveDuplicate() {
+        Map<String, String> dictionary = new LinkedHashMap<>();
+        dictionary.put("", "vacío");
+        dictionary.put("Pride", "primero");
+        dictionary.put("pride", "segundo");
+        AhoCorasick<String> automaton = new AhoCorasick<>(dictionary);
+
+        assertEquals(1, automaton.size());
+        assertEquals("primero", automaton.longestMatch("PRIDE and prejudice"));
+    }
+
+    // Con un alfabeto pequeño hay muchos enlaces de fallo: el resultado tiene que coincidir con buscar patrón por patrón
+    @Test
+    void matchesBruteForceOnRandomTexts() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            Map<String, String> dictionary = new LinkedHashMap<>();
+            for (int i = 0; i < 8; i++) {
+                String pattern = randomText(random, 1 + random.nextInt(4));
+                dictionary.putIfAbsent(pattern, pattern);
+            }
+            String text = randomText(random, 30);
+            AhoCorasick<String> automaton = new AhoCorasick<>(dictionary);
+
+            List<String> expected = new ArrayList<>();
+            for (int end = 1; end <= text.length(); end++) {
+                for (String pattern : dictionary.keySet()) {
+                    if (end >= pattern.length() && text.startsWith(pattern, end - pattern.length())) {
+                        expected.add(pattern + "@" + (end - pattern.length()));
+                    }
+                }
+            }
+            List<String> actual = new ArrayList<>();
+            automaton.forEachMatch(text, (start, value) -> actual.add(value + "@" + start));
+
+            expected.sort(null);
+            actual.sort(null);
+            assertEquals(expected, actual, "Texto " + text + " con " + dictionary.keySet());
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(3)));
+        }
+        return text.toString();
+    }
+}
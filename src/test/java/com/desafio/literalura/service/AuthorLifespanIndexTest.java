@@ -0,0 +1,71 @@
+package com.desafio.literalura.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Árbol de intervalos de los años de vida: mismos autores y mismo orden que la consulta SQL
+class AuthorLifespanIndexTest {
+
+    @Test
+    void unknownYearsAreOpenAndBoundsAreInclusive() {
+        List<long[]> rows = List.of(
+                AuthorLifespanIndex.row(1, 1775, 1817), // Austen
+                AuthorLifespanIndex.row(2, 1812, 1870), // Dickens
+                AuthorLifespanIndex.row(3, null, 1800), // Nacimiento desconocido
+                AuthorLifespanIndex.row(4, 1900, null)); // Fallecimiento desconocido
+        AuthorLifespanIndex.Snapshot snapshot = new AuthorLifespanIndex.Snapshot(rows);
+
+        assertEquals(List.of(1L, 3L), snapshot.query(1800, 1800));
+        assertEquals(List.of(1L, 2L), snapshot.query(1817, 1817));
+        assertEquals(List.of(2L), snapshot.query(1818, 1870));
+        assertEquals(List.of(4L), snapshot.query(2500, 2500));
+        assertEquals(List.of(3L), snapshot.query(-500, -500));
+        assertEquals(List.of(1L, 2L, 4L, 3L), snapshot.query(1700, 1950)); // Los sin nacimiento van al final
+    }
+
+    @Test
+    void incoherentDatesAreDropped() {
+        assertNull(AuthorLifespanIndex.row(1, 1900, 1800));
+    }
+
+    @Test
+    void emptyIndexFindsNothing() {
+        assertEquals(List.of(), new AuthorLifespanIndex.Snapshot(List.of()).query(1800, 1900));
+    }
+
+    // Intervalos al azar (muchos compartiendo años) comparados con recorrer la lista completa
+    @Test
+    void matchesLinearScan() {
+        Random random = new Random(11);
+        List<long[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 400; id++) {
+            Integer birth = random.nextInt(10) == 0 ? null : 1500 + random.nextInt(300);
+            Integer death = random.nextInt(10) == 0 ? null : (birth != null ? birth : 1500) + random.nextInt(90) - 5;
+            long[] row = AuthorLifespanIndex.row(id, birth, death);
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+        AuthorLifespanIndex.Snapshot snapshot = new AuthorLifespanIndex.Snapshot(rows);
+
+        for (int i = 0; i < 300; i++) {
+            int from = 1450 + random.nextInt(450);
+            int to = from + random.nextInt(i % 3 == 0 ? 1 : 60);
+            List<Long> expected = rows.stream()
+                    .filter(row -> row[1] <= to && row[2] >= from)
+                    .sorted(Comparator.<long[]>comparingLong(row -> row[3])
+                            .thenComparingLong(row -> row[1])
+                            .thenComparingLong(row -> row[0]))
+                    .map(row -> row[0])
+                    .toList();
+            assertEquals(expected, snapshot.query(from, to), "Años " + from + " a " + to);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.desafio.literalura.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Resumen Space-Saving: contadores exactos mientras hay lugar, reemplazo del mínimo y orden del ranking
+class SpaceSavingTest {
+
+    @Test
+    void exactCountsWhileThereIsRoom() {
+        SpaceSaving summary = new SpaceSaving(3);
+        summary.add(1L, 1);
+        summary.add(2L, 1);
+        summary.add(2L, 1);
+        summary.add(3L, 5);
+        summary.add(1L, 1);
+
+        assertEquals(Map.of(1L, 2L, 2L, 2L, 3L, 5L), summary.toMap());
+        assertEquals(3L, summary.top(10).keySet().iterator().next());
+        assertEquals(Map.of(3L, 5L), summary.top(1));
+    }
+
+    @Test
+    void newIdReplacesAMinimumAndInheritsItsCount() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.add(1L, 4);
+        summary.add(2L, 2);
+        summary.add(3L, 1); // Reemplaza al 2 (el mínimo) y queda en 2 + 1
+
+        assertEquals(2, summary.size());
+        assertEquals(0, summary.count(2L));
+        assertEquals(3, summary.count(3L));
+        assertEquals(4, summary.count(1L));
+    }
+
+    @Test
+    void largeIncrementsKeepGroupsOrdered() {
+        SpaceSaving summary = new SpaceSaving(10);
+        summary.add(1L, 1);
+        summary.add(2L, 3);
+        summary.add(3L, 7);
+        summary.add(1L, 2); // Se une al grupo de 3
+        summary.add(2L, 10); // Salta por encima del 7
+
+        assertEquals(List.of(2L, 3L, 1L), List.copyOf(summary.top(3).keySet()));
+        assertEquals(Map.of(2L, 13L, 3L, 7L, 1L, 3L), summary.toMap());
+    }
+
+    @Test
+    void topStopsAtLimit() {
+        SpaceSaving summary = new SpaceSaving(5);
+        for (long id = 1; id <= 5; id++) {
+            summary.add(id, id);
+        }
+        assertEquals(Map.of(5L, 5L, 4L, 4L), summary.top(2));
+        assertEquals(5, summary.top(100).size());
+    }
+
+    @Test
+    void removeReturnsTheCountAndFreesTheSlot() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.add(1L, 4);
+        summary.add(2L, 2);
+
+        assertEquals(2, summary.remove(2L));
+        assertEquals(0, summary.remove(2L));
+        summary.add(1L, 2); // Libro unido a otro: hereda sus búsquedas
+        summary.add(3L, 1); // Hay lugar, no reemplaza a nadie
+
+        assertEquals(Map.of(1L, 6L, 3L, 1L), summary.toMap());
+        assertEquals(List.of(1L, 3L), List.copyOf(summary.top(5).keySet()));
+    }
+
+    @Test
+    void zeroCapacityKeepsNothing() {
+        SpaceSaving summary = new SpaceSaving(0);
+        summary.add(1L, 1);
+        assertEquals(0, summary.size());
+        assertTrue(summary.top(5).isEmpty());
+    }
+
+    // Garantías de Space-Saving con un flujo sesgado: la suma de contadores es el total de búsquedas,
+    // ningún contador subestima y los libros con más de total / capacidad búsquedas siempre están
+    @Test
+    void guaranteesHoldOnASkewedStream() {
+        int capacity = 20;
+        SpaceSaving summary = new SpaceSaving(capacity);
+        Map<Long, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        int total = 20_000;
+        for (int i = 0; i < total; i++) {
+            long id = (long) Math.floor(Math.pow(random.nextDouble(), 3) * 500); // Pocos libros muy buscados
+            summary.add(id, 1);
+            exact.merge(id, 1L, Long::sum);
+        }
+
+        assertEquals(capacity, summary.size());
+        assertEquals(total, summary.toMap().values().stream().mapToLong(Long::longValue).sum());
+        summary.forEach((id, count) -> assertTrue(count >= exact.get(id), "Contador subestimado para " + id));
+        exact.forEach((id, count) -> {
+            if (count > total / capacity) {
+                assertTrue(summary.count(id) > 0, "Falta el libro frecuente " + id);
+            }
+        });
+    }
+}